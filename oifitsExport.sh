@@ -9,34 +9,42 @@
 # | [-jpg]                    export plots to the given file (JPG format) [SHELL]    |
 # | [-mode]                   export mode [multi|single] page    |
 # | [-dims]                   export image dimensions [width,height] [SHELL]    |
+# | [-timeout]                export timeout in seconds (default 60) [SHELL]    |
+# | [-batch]                  export every oixp file listed in the given manifest [SHELL]    |
+# | [-granules]               export every granule (target, insmode, night) of the opened oixp [SHELL]    |
+# | [-file]                   template override: OIFits file replacing the oixp files [SHELL]    |
+# | [-target]                 template override: target UID [SHELL]    |
+# | [-insmode]                template override: instrument mode UID [SHELL]    |
+# | [-night]                  template override: night identifier [SHELL]    |
+#
+# Exit codes: 0 = exports done, 1 = export failure (no data...), 2 = timeout
 #
 # java -cp ./target/oiexplorer-TRUNK-jar-with-dependencies.jar fr.jmmc.oiexplorer.OIFitsExplorer -png test.png -mode=single -dims 1200,800 -open test.oixp 
 #
+# Batch mode (single JVM): -png/-pdf/-jpg give output directories and each manifest line is
+# '<oixp file> [<output name>] [file=<oifits>] [target=<UID>] [insmode=<UID>] [night=<ID>]'
+# (tokens containing spaces must be double-quoted, e.g. "my dir/test.oixp" file="my dir/test.oifits")
+# java -cp ./target/oiexplorer-TRUNK-jar-with-dependencies.jar fr.jmmc.oiexplorer.OIFitsExplorer -png ./out -mode=single -dims 1200,800 -batch manifest.txt
+#
+# Granules mode (single load): -png/-pdf/-jpg give output directories and one image is exported per
+# (target, insmode, night) of the OIFits file, named '<oifits>_<target>_<insmode>_<night>.png'
+# java -cp ./target/oiexplorer-TRUNK-jar-with-dependencies.jar fr.jmmc.oiexplorer.OIFitsExplorer -png ./out -mode=single -dims 1200,800 -granules -open test.oixp -file test.oifits
+#
 # Extra flags: -Dtarget.matcher.name=true -Dinsmode.matcher.name=true -Dfix.bad.uid=true
 #
 #
 
-function genOIXP(){
-  OIFITS="${1}"
-  OIXP_TMPL="${2}"
-  OIXP="${3}"
-  TargetUID="${4}"
-  InsModeUID="${5}"
-  NightId="${6}"
-
-  cp export_templates/$OIXP_TMPL $OIXP
-
-  # update fields
-  xmlstarlet ed -L -u "//file/name" -v "$(basename $OIFITS)" -u "//file/file" -v "$OIFITS" -u "//filter/targetUID" -v "$TargetUID" -u "//filter/insModeUID" -v "$InsModeUID" -u "//filter/nightID" -v "$NightId" $OIXP
-}
-
-#
 #
+# Export the given OIFITS as png (one per granule) into the given directory using the given oixp template
 #
 function genPNG(){
-  OIXP="${1}"
-  PNG="${OIXP/.oixp/.png}"
-  java -cp ./target/oiexplorer-TRUNK-jar-with-dependencies.jar fr.jmmc.oiexplorer.OIFitsExplorer -png $PNG -mode=single -dims 1200,800 -open $OIXP
+  OIFITS="${1}"
+  OIXP_TMPL="${2}"
+  OUT_DIR="${3}"
+
+  mkdir -p $OUT_DIR
+  java -cp ./target/oiexplorer-TRUNK-jar-with-dependencies.jar fr.jmmc.oiexplorer.OIFitsExplorer -png $OUT_DIR -mode=single -dims 1200,800 \
+       -granules -open export_templates/$OIXP_TMPL -file $OIFITS
 }
 
 OIFITS="${1}"
@@ -47,17 +55,6 @@ then
     exit 1;
 fi
 
-# Filters (granule fields)
-# TODO: fix values only applicable to /iota/MWC275.2004Mar-Jun.A35B15C10.oifits
-TargetUID="MWC275"
-InsModeUID="IONIC3"
-NightId="53090"
-
-OIXP="low.oixp"
-genOIXP $OIFITS 'oidb-template-low_res.oixp' $OIXP $TargetUID $InsModeUID $NightId
-genPNG $OIXP
-
-OIXP="med_high.oixp"
-genOIXP $OIFITS 'oidb-template-med_high_res.oixp' $OIXP $TargetUID $InsModeUID $NightId
-genPNG $OIXP
+genPNG $OIFITS 'oidb-template-low_res.oixp' 'low'
 
+genPNG $OIFITS 'oidb-template-med_high_res.oixp' 'med_high'
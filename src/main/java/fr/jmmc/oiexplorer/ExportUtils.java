@@ -4,18 +4,39 @@
 package fr.jmmc.oiexplorer;
 
 import fr.jmmc.jmcs.Bootstrapper;
-import fr.jmmc.jmcs.util.concurrent.ThreadExecutors;
+import fr.jmmc.jmcs.data.MimeType;
+import fr.jmmc.jmcs.gui.util.SwingUtils;
 import fr.jmmc.oiexplorer.core.export.DocumentExportable;
+import fr.jmmc.oiexplorer.core.export.DocumentMode;
 import fr.jmmc.oiexplorer.core.export.DocumentOptions;
+import fr.jmmc.oiexplorer.core.export.ImageOptions;
 import fr.jmmc.oiexplorer.core.gui.action.ExportDocumentAction;
+import fr.jmmc.oiexplorer.core.model.LoadOIFitsListener;
 import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManager;
 import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManagerEvent;
 import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManagerEventListener;
 import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManagerEventType;
 import fr.jmmc.oiexplorer.core.model.oi.SubsetDefinition;
+import fr.jmmc.oiexplorer.gui.MainPanel;
+import fr.jmmc.oitools.model.Granule;
+import fr.jmmc.oitools.model.Granule.GranuleField;
+import fr.jmmc.oitools.model.InstrumentMode;
+import fr.jmmc.oitools.model.NightId;
+import fr.jmmc.oitools.model.OIFitsChecker;
+import fr.jmmc.oitools.model.Target;
+import fr.jmmc.oitools.util.GranuleComparator;
+import java.beans.PropertyChangeEvent;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,8 +48,18 @@ public final class ExportUtils {
 
     /** Class logger */
     private static final Logger logger = LoggerFactory.getLogger(ExportUtils.class.getName());
+    /** exit code when all exports succeeded */
+    public final static int EXIT_OK = 0;
+    /** exit code when any export failed (no data, IO error ...) */
+    public final static int EXIT_FAILURE = 1;
+    /** exit code when exports did not complete before the timeout */
+    public final static int EXIT_TIMEOUT = 2;
+    /** default timeout (seconds) to load files and perform exports */
+    public final static long DEFAULT_TIMEOUT = 60l;
     /** keep listener alive as a static listener list */
     private final static Vector<OIFitsCollectionManagerEventListener> aliveListeners = new Vector<OIFitsCollectionManagerEventListener>();
+    /** current export listener gathering all export formats (one per exported item) */
+    private static ExportWhenReadyListener currentListener = null;
 
     /**
      * Private Constructor
@@ -39,6 +70,7 @@ public final class ExportUtils {
 
     /**
      * Save the plots as a document in the given file
+     * Note: all formats given before the READY event are exported together (shared page layout)
      * @param file file to create
      * @param options parameters of the document page
      * @throws IOException if the file exists but is a directory
@@ -46,42 +78,662 @@ public final class ExportUtils {
      *                   be created, or cannot be opened for any other reason
      * @throws IllegalStateException if a document exception occurred
      */
-    public static void addExportListener(final File file, final DocumentOptions options)
+    public static synchronized void addExportListener(final File file, final DocumentOptions options)
             throws IOException, IllegalStateException {
 
-        final OIFitsCollectionManager ocm = OIFitsCollectionManager.getInstance();
+        if (currentListener == null) {
+            final OIFitsCollectionManager ocm = OIFitsCollectionManager.getInstance();
+
+            currentListener = new ExportWhenReadyListener(new ExportSession());
 
-        final OIFitsCollectionManagerEventListener readyEventListener = new ExportWhenReadyListener(file, options);
+            // Register READY event listener:
+            ocm.bindReadyEvent(currentListener);
+
+            // Keep code alive:
+            aliveListeners.add(currentListener);
+        }
+        currentListener.addExport(file, options);
+    }
 
-        // Register READY event listener:
-        ocm.bindReadyEvent(readyEventListener);
+    /**
+     * Create the document options for the given export format
+     * @param mimeType export format (PDF, PNG, JPG)
+     * @param mode export mode [multi|single] page (optional)
+     * @param dims image dimensions [width,height] (optional)
+     * @return new document options
+     */
+    public static DocumentOptions createOptions(final MimeType mimeType, final String mode, final String dims) {
+        final DocumentOptions options = DocumentOptions.createInstance(mimeType).setMode(mode);
 
-        // Keep code alive:
-        aliveListeners.add(readyEventListener);
+        if (options instanceof ImageOptions) {
+            // specific to images:
+            ((ImageOptions) options).setDimensions(dims);
+        }
+        return options;
+    }
+
+    /**
+     * Parse the export timeout argument
+     * @param value timeout argument (seconds) or null
+     * @return timeout in seconds (DEFAULT_TIMEOUT if null)
+     * @throws IllegalArgumentException if the timeout is invalid
+     */
+    public static long parseTimeout(final String value) throws IllegalArgumentException {
+        if (value == null) {
+            return DEFAULT_TIMEOUT;
+        }
+        try {
+            final long timeout = Long.parseLong(value.trim());
+            if (timeout > 0l) {
+                return timeout;
+            }
+        } catch (NumberFormatException nfe) {
+            logger.debug("invalid timeout: {}", value, nfe);
+        }
+        throw new IllegalArgumentException("Invalid timeout (seconds): " + value);
     }
 
-    public static void loadDataAndWaitUntilExportDone() {
+    /**
+     * Load the command line file and block until all registered exports are done, failed or the timeout expired.
+     * Then stop the application with the corresponding exit code (EXIT_OK, EXIT_FAILURE or EXIT_TIMEOUT)
+     * @param file command line file (oixp)
+     * @param overrides template overrides applied before exporting
+     * @param timeout timeout in seconds
+     */
+    public static void loadDataAndWaitUntilExportDone(final File file, final TemplateOverrides overrides, final long timeout) {
 
         // Load file asynchronously:
-        OIFitsExplorer.getInstance().openCommandLineFile();
+        if (overrides.isEmpty() && !isOIFitsCollectionFile(file)) {
+            // OIFits file: loading failures are reported to release the waiting thread
+            logger.info("Loading {}", file);
+            loadOIFits(file);
+        } else {
+            // oixp file: loading failures are reported to release the waiting thread
+            logger.info("Loading {} with {}", file, overrides);
+            loadTemplate(file, overrides);
+        }
 
         // Note: it will call back any registered READY event listeners to export documents ...
-        final long lapse = 60000l;
-        logger.info("Waiting for {} ms to load files asynchronously and perform exports...", lapse);
-        ThreadExecutors.sleep(lapse);
+        Bootstrapper.stopApp(waitUntilExportDone(timeout));
     }
 
-    private static class ExportWhenReadyListener implements OIFitsCollectionManagerEventListener {
+    /**
+     * Block until all registered export listeners are done, failed or the timeout expired.
+     * Note: any remaining export listener is unregistered and the export state is reset for the next exports
+     * @param timeout timeout in seconds
+     * @return EXIT_OK, EXIT_FAILURE or EXIT_TIMEOUT
+     */
+    static int waitUntilExportDone(final long timeout) {
+        final ExportSession session = getCurrentSession();
+        if (session == null) {
+            logger.error("No export registered");
+            return EXIT_FAILURE;
+        }
+        logger.info("Waiting up to {} s to load files asynchronously and perform exports...", timeout);
+
+        final int status = session.await(timeout);
+
+        // unregister pending listeners (timeout or failure):
+        synchronized (aliveListeners) {
+            for (OIFitsCollectionManagerEventListener listener : aliveListeners) {
+                listener.dispose();
+            }
+            aliveListeners.clear();
+        }
+
+        // reset state: the next exports use a new listener and session
+        // (a late event on an old listener only releases its own session):
+        synchronized (ExportUtils.class) {
+            currentListener = null;
+        }
+        return status;
+    }
+
+    /**
+     * @return export session of the current export listener or null if no export is registered
+     */
+    private static synchronized ExportSession getCurrentSession() {
+        return (currentListener != null) ? currentListener.session : null;
+    }
+
+    /**
+     * Return true if the given file is an OIFits collection (oixp)
+     * @param file file to test
+     * @return true if the file extension is the oixp extension
+     */
+    private static boolean isOIFitsCollectionFile(final File file) {
+        return file.getName().toLowerCase().endsWith('.' + MimeType.OIFITS_EXPLORER_COLLECTION.getExtension());
+    }
+
+    /**
+     * Export plots of every oixp file listed in the given manifest file within this process
+     * (same main panel and plot views reused between items), then stop the application.
+     *
+     * Manifest format: one item per line (empty lines and lines starting by '#' are skipped):
+     * &lt;oixp file&gt; [&lt;output name&gt;] [file=&lt;oifits&gt;] [target=&lt;UID&gt;] [insmode=&lt;UID&gt;] [night=&lt;ID&gt;]
+     * where the output name (without extension) defaults to the oixp file name
+     * and optional key=value tokens are template overrides (see TemplateOverrides).
+     * Tokens are separated by white spaces; a token (or a value) containing spaces must be enclosed
+     * by double quotes, for example: "my data/test.oixp" file="my data/test.oifits".
+     * Relative paths are resolved against the manifest directory.
+     *
+     * @param manifest manifest file
+     * @param outputDirs output directory per export format
+     * @param mode export mode [multi|single] page (optional)
+     * @param dims image dimensions [width,height] (optional)
+     * @param timeout timeout in seconds per item
+     * @throws IOException if the manifest can not be read
+     * @throws IllegalArgumentException if any output directory is invalid
+     */
+    public static void exportBatch(final File manifest, final Map<MimeType, String> outputDirs,
+                                   final String mode, final String dims, final long timeout)
+            throws IOException, IllegalArgumentException {
+
+        checkOutputDirs(outputDirs);
+
+        final List<BatchItem> items = parseManifest(manifest);
+        logger.info("exportBatch: {} items", items.size());
+
+        final long startTime = System.nanoTime();
+
+        int status = EXIT_OK;
+        int nFailures = 0;
+
+        for (final BatchItem item : items) {
+            logger.info("exportBatch: processing {}", item.file);
+
+            for (Map.Entry<MimeType, String> e : outputDirs.entrySet()) {
+                final MimeType mimeType = e.getKey();
+                final File file = new File(e.getValue(), item.outputName + "." + mimeType.getExtension()).getAbsoluteFile();
+
+                addExportListener(file, createOptions(mimeType, mode, dims));
+            }
+
+            // Load the collection (replaced): plot views are kept if plot identifiers match
+            loadTemplate(item.file, item.overrides);
+
+            final int itemStatus = waitUntilExportDone(timeout);
+
+            if (itemStatus != EXIT_OK) {
+                logger.error("exportBatch: export failed for {} (status = {})", item.file, itemStatus);
+                nFailures++;
+                status = Math.max(status, itemStatus);
+            }
+        }
+
+        logger.info("exportBatch: {} / {} items exported; duration = {} ms.", (items.size() - nFailures), items.size(),
+                1e-6d * (System.nanoTime() - startTime));
+
+        Bootstrapper.stopApp(status);
+    }
+
+    /**
+     * Load the given oixp template with the given OIFits file once then export plots for every granule
+     * (target, instrument mode, night) of the loaded collection (subset filters updated in memory), then stop the application.
+     * Output files are named &lt;OIFits file name&gt;_&lt;target&gt;_&lt;insMode&gt;_&lt;night&gt;
+     *
+     * @param template oixp template file
+     * @param overrides template overrides (OIFits file ...)
+     * @param outputDirs output directory per export format
+     * @param mode export mode [multi|single] page (optional)
+     * @param dims image dimensions [width,height] (optional)
+     * @param timeout timeout in seconds (load and per granule)
+     * @throws IllegalArgumentException if any output directory is invalid
+     */
+    public static void exportGranules(final File template, final TemplateOverrides overrides,
+                                      final Map<MimeType, String> outputDirs,
+                                      final String mode, final String dims, final long timeout)
+            throws IOException, IllegalArgumentException {
+
+        checkOutputDirs(outputDirs);
+
+        final long startTime = System.nanoTime();
+        final OIFitsCollectionManager ocm = OIFitsCollectionManager.getInstance();
+
+        // Load and analyze data once:
+        final LoadedListener loadedListener = new LoadedListener();
+        ocm.bindReadyEvent(loadedListener);
+
+        SwingUtils.invokeLaterEDT(new Runnable() {
+            @Override
+            public void run() {
+                // loading failed or cancelled: no READY event will come
+                final Runnable failureHandler = new Runnable() {
+                    @Override
+                    public void run() {
+                        loadedListener.cancel();
+                    }
+                };
+                if (!overrides.loadTemplate(template, ocm, failureHandler)) {
+                    failureHandler.run();
+                }
+            }
+        });
+
+        final List<Granule> granules = loadedListener.waitForGranules(timeout);
+        if (granules == null) {
+            logger.error("exportGranules: no data loaded from {}", template);
+            Bootstrapper.stopApp(EXIT_FAILURE);
+            return;
+        }
+        logger.info("exportGranules: {} granules", granules.size());
+
+        final String baseName;
+        if (overrides.getFile() != null) {
+            baseName = overrides.getFile().getName();
+        } else {
+            baseName = template.getName();
+        }
+
+        int status = EXIT_OK;
+        int nFailures = 0;
+
+        for (Granule granule : granules) {
+            final Target target = (Target) granule.getField(GranuleField.TARGET);
+            final InstrumentMode insMode = (InstrumentMode) granule.getField(GranuleField.INS_MODE);
+            final NightId nightId = (NightId) granule.getField(GranuleField.NIGHT);
+
+            if (target == null || insMode == null || nightId == null) {
+                logger.warn("exportGranules: skip incomplete granule: {}", granule);
+                continue;
+            }
+
+            final TemplateOverrides granuleFilter = new TemplateOverrides();
+            granuleFilter.set(TemplateOverrides.KEY_TARGET, target.getTarget(), null);
+            granuleFilter.set(TemplateOverrides.KEY_INSMODE, insMode.getInsName(), null);
+            granuleFilter.set(TemplateOverrides.KEY_NIGHT, String.valueOf(nightId.getNightId()), null);
+
+            final String outputName = (baseName + '_' + target.getTarget() + '_' + insMode.getInsName() + '_' + nightId.getNightId())
+                    .replaceAll("[^A-Za-z0-9._+-]", "_");
+
+            logger.info("exportGranules: processing {}", outputName);
+
+            for (Map.Entry<MimeType, String> e : outputDirs.entrySet()) {
+                final MimeType mimeType = e.getKey();
+                final File file = new File(e.getValue(), outputName + "." + mimeType.getExtension()).getAbsoluteFile();
+
+                addExportListener(file, createOptions(mimeType, mode, dims));
+            }
+
+            // Update subset filters (already analyzed collection) then fire READY using EDT:
+            SwingUtils.invokeLaterEDT(new Runnable() {
+                @Override
+                public void run() {
+                    granuleFilter.applyAndFireReady(ocm);
+                }
+            });
+
+            final int granuleStatus = waitUntilExportDone(timeout);
+
+            if (granuleStatus != EXIT_OK) {
+                logger.error("exportGranules: export failed for {} (status = {})", outputName, granuleStatus);
+                nFailures++;
+                status = Math.max(status, granuleStatus);
+            }
+        }
+
+        logger.info("exportGranules: {} / {} granules exported; duration = {} ms.", (granules.size() - nFailures), granules.size(),
+                1e-6d * (System.nanoTime() - startTime));
+
+        Bootstrapper.stopApp(status);
+    }
+
+    /**
+     * Check that the given output directories exist and are writable
+     * @param outputDirs output directory per export format
+     * @throws IllegalArgumentException if any output directory is invalid
+     */
+    private static void checkOutputDirs(final Map<MimeType, String> outputDirs) throws IllegalArgumentException {
+        for (String dir : outputDirs.values()) {
+            final File outputDir = new File(dir);
+            if (!outputDir.isDirectory() || !outputDir.canWrite()) {
+                throw new IllegalArgumentException("Can not write into: " + outputDir.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Load the given oixp file (template) and apply overrides using EDT
+     * @param file oixp file
+     * @param overrides template overrides
+     */
+    private static void loadTemplate(final File file, final TemplateOverrides overrides) {
+        final ExportSession session = getCurrentSession();
+
+        // loading failed or cancelled: no READY event will come, fail fast
+        final Runnable failureHandler = new Runnable() {
+            @Override
+            public void run() {
+                if (session != null) {
+                    session.finish(true);
+                }
+            }
+        };
+
+        SwingUtils.invokeLaterEDT(new Runnable() {
+            @Override
+            public void run() {
+                boolean started = false;
+                try {
+                    started = overrides.loadTemplate(file, OIFitsCollectionManager.getInstance(), failureHandler);
+                } catch (RuntimeException re) {
+                    logger.error("Could not load the file: {}", file, re);
+                }
+                if (!started) {
+                    failureHandler.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Load the given OIFits file using EDT; the current export session is released as failed
+     * if the loading is cancelled or loads no data (no READY event will come)
+     * @param file OIFits file to load
+     */
+    private static void loadOIFits(final File file) {
+        final ExportSession session = getCurrentSession();
+
+        SwingUtils.invokeLaterEDT(new Runnable() {
+            @Override
+            public void run() {
+                final OIFitsCollectionManager ocm = OIFitsCollectionManager.getInstance();
+
+                ocm.loadOIFitsFiles(new File[]{file}, OIFitsChecker.newInstance(), new LoadOIFitsListener() {
+
+                    @Override
+                    public void propertyChange(final PropertyChangeEvent pce) {
+                        // no progress
+                    }
+
+                    @Override
+                    public void done(final boolean cancelled) {
+                        if (cancelled || ocm.getOIFitsCollection().isEmpty()) {
+                            logger.error("Could not load data from {} ({})", file, (cancelled) ? "cancelled" : "no data");
+                            if (session != null) {
+                                session.finish(true);
+                            }
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Parse the given batch manifest file (see exportBatch for its format)
+     * @param manifest manifest file
+     * @return list of batch items
+     * @throws IOException if the manifest can not be read
+     * @throws IllegalArgumentException if any line is invalid or any referenced file does not exist
+     */
+    static List<BatchItem> parseManifest(final File manifest) throws IOException, IllegalArgumentException {
+        final File baseDir = manifest.getAbsoluteFile().getParentFile();
+        final List<BatchItem> items = new ArrayList<BatchItem>();
+
+        final BufferedReader reader = new BufferedReader(new FileReader(manifest));
+        try {
+            String line;
+            for (int lineNum = 1; (line = reader.readLine()) != null; lineNum++) {
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#') {
+                    continue;
+                }
+                final List<String> tokens = tokenize(line);
+                if (tokens == null) {
+                    throw new IllegalArgumentException("Missing closing quote"
+                            + " [" + manifest.getName() + " line " + lineNum + "]");
+                }
+
+                File file = new File(tokens.get(0));
+                if (!file.isAbsolute()) {
+                    file = new File(baseDir, tokens.get(0));
+                }
+                if (!file.isFile()) {
+                    throw new IllegalArgumentException("Could not load the file: " + file.getAbsolutePath()
+                            + " [" + manifest.getName() + " line " + lineNum + "]");
+                }
+
+                String outputName = null;
+                final TemplateOverrides overrides = new TemplateOverrides();
+
+                for (int i = 1, len = tokens.size(); i < len; i++) {
+                    final String token = tokens.get(i);
+                    final int pos = token.indexOf('=');
+                    if (pos > 0) {
+                        overrides.set(token.substring(0, pos), token.substring(pos + 1), baseDir);
+                    } else {
+                        outputName = token;
+                    }
+                }
+                if (outputName == null) {
+                    final String fileName = file.getName();
+                    final int pos = fileName.lastIndexOf('.');
+                    outputName = (pos > 0) ? fileName.substring(0, pos) : fileName;
+                }
+                items.add(new BatchItem(file, outputName, overrides));
+            }
+        } finally {
+            reader.close();
+        }
+        return items;
+    }
+
+    /**
+     * Split the given manifest line into tokens separated by white spaces;
+     * double quotes enclose characters (including white spaces) and are removed.
+     * @param line manifest line (not empty)
+     * @return list of tokens or null if a quote is not closed
+     */
+    static List<String> tokenize(final String line) {
+        final List<String> tokens = new ArrayList<String>(8);
+        final StringBuilder sb = new StringBuilder(line.length());
+
+        boolean inQuotes = false;
+        boolean inToken = false;
+
+        for (int i = 0, len = line.length(); i < len; i++) {
+            final char ch = line.charAt(i);
+
+            if (ch == '"') {
+                inQuotes = !inQuotes;
+                inToken = true;
+            } else if (!inQuotes && Character.isWhitespace(ch)) {
+                if (inToken) {
+                    tokens.add(sb.toString());
+                    sb.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                sb.append(ch);
+                inToken = true;
+            }
+        }
+        if (inQuotes) {
+            return null;
+        }
+        if (inToken) {
+            tokens.add(sb.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Notify the end of the given export listener and release waiting threads if no more listeners are alive.
+     * @param listener export listener
+     * @param failed true if the export failed
+     */
+    private static void exportFinished(final ExportWhenReadyListener listener, final boolean failed) {
+        // remove this listener from all alive listeners:
+        aliveListeners.remove(listener);
+        listener.dispose();
+
+        // release the thread waiting for this listener:
+        listener.session.finish(failed);
+    }
+
+    /** Export session of one exported item: latch released once its exports are done (or failed) */
+    private static final class ExportSession {
+
+        /** latch released once exports are done (or failed) */
+        private final CountDownLatch done = new CountDownLatch(1);
+        /** failure flag */
+        private volatile boolean failed = false;
+
+        ExportSession() {
+            super();
+        }
+
+        /**
+         * Flag this session as failed (without releasing the waiting thread)
+         */
+        void setFailed() {
+            this.failed = true;
+        }
+
+        /**
+         * Release the waiting thread
+         * @param failed true if the export failed
+         */
+        void finish(final boolean failed) {
+            if (failed) {
+                setFailed();
+            }
+            done.countDown();
+        }
+
+        /**
+         * Block until exports are done, failed or the timeout expired
+         * @param timeout timeout in seconds
+         * @return EXIT_OK, EXIT_FAILURE or EXIT_TIMEOUT
+         */
+        int await(final long timeout) {
+            try {
+                if (done.await(timeout, TimeUnit.SECONDS)) {
+                    return (failed) ? EXIT_FAILURE : EXIT_OK;
+                }
+                logger.error("Timeout: exports not done after {} s", timeout);
+                return EXIT_TIMEOUT;
+            } catch (InterruptedException ie) {
+                logger.error("Interrupted while waiting for exports");
+                Thread.currentThread().interrupt();
+                return EXIT_FAILURE;
+            }
+        }
+    }
+
+    /** Batch item: oixp file, output name and template overrides */
+    static final class BatchItem {
+
+        /** oixp file */
+        final File file;
+        /** output name (without extension) */
+        final String outputName;
+        /** template overrides */
+        final TemplateOverrides overrides;
+
+        BatchItem(final File file, final String outputName, final TemplateOverrides overrides) {
+            this.file = file;
+            this.outputName = outputName;
+            this.overrides = overrides;
+        }
+    }
+
+    /** One-shot READY listener giving the sorted granules of the loaded collection */
+    private static final class LoadedListener implements OIFitsCollectionManagerEventListener {
 
         /** OIFitsCollectionManager singleton reference */
         private final static OIFitsCollectionManager ocm = OIFitsCollectionManager.getInstance();
-        private final File file;
-        private final DocumentOptions options;
+        /** latch released on READY */
+        private final CountDownLatch loaded = new CountDownLatch(1);
+        /** sorted granules (set on READY) */
+        private volatile List<Granule> granules = null;
+
+        LoadedListener() {
+            super();
+        }
+
+        /**
+         * Block until the READY event is received or the timeout expired
+         * @param timeout timeout in seconds
+         * @return sorted granules or null if timeout or interrupted
+         */
+        List<Granule> waitForGranules(final long timeout) {
+            try {
+                if (!loaded.await(timeout, TimeUnit.SECONDS)) {
+                    dispose();
+                }
+            } catch (InterruptedException ie) {
+                logger.error("Interrupted while loading data");
+                Thread.currentThread().interrupt();
+                dispose();
+            }
+            return granules;
+        }
+
+        /**
+         * Release the waiting thread without granules (loading failed)
+         */
+        void cancel() {
+            dispose();
+            loaded.countDown();
+        }
+
+        @Override
+        public void dispose() {
+            ocm.unbind(this);
+        }
+
+        @Override
+        public String getSubjectId(final OIFitsCollectionManagerEventType type) {
+            // accept all
+            return null;
+        }
 
-        ExportWhenReadyListener(final File file, final DocumentOptions options) {
+        @Override
+        public void onProcess(final OIFitsCollectionManagerEvent event) {
+            switch (event.getType()) {
+                case READY:
+                    // copy granules (EDT):
+                    this.granules = new ArrayList<Granule>(ocm.getOIFitsCollection().getSortedGranules(GranuleComparator.DEFAULT));
+                    dispose();
+                    loaded.countDown();
+                    break;
+                default:
+            }
+        }
+    }
+
+    /** Export format: file and document options */
+    private static final class ExportTarget {
+
+        /** file to create */
+        final File file;
+        /** parameters of the document page */
+        final DocumentOptions options;
+
+        ExportTarget(final File file, final DocumentOptions options) {
             this.file = file;
             this.options = options;
         }
+    }
+
+    private static class ExportWhenReadyListener implements OIFitsCollectionManagerEventListener {
+
+        /** OIFitsCollectionManager singleton reference */
+        private final static OIFitsCollectionManager ocm = OIFitsCollectionManager.getInstance();
+        /** export session released by this listener */
+        final ExportSession session;
+        /** export formats */
+        private final List<ExportTarget> targets = new ArrayList<ExportTarget>(3);
+
+        ExportWhenReadyListener(final ExportSession session) {
+            this.session = session;
+        }
+
+        void addExport(final File file, final DocumentOptions options) {
+            targets.add(new ExportTarget(file, options));
+        }
 
         @Override
         public void dispose() {
@@ -137,24 +789,45 @@ public final class ExportUtils {
                 }
             }
             if (noData) {
-                Bootstrapper.stopApp(1);
+                // fail fast: do not wait for other exports
+                exportFinished(this, true);
+                return;
             }
 
-            final DocumentExportable exportable = OIFitsExplorer.getInstance().getMainPanel();
+            final MainPanel mainPanel = OIFitsExplorer.getInstance().getMainPanel();
 
+            boolean failed = true;
             try {
-                ExportDocumentAction.export(exportable, this.file, options);
+                if (targets.size() == 1) {
+                    final ExportTarget target = targets.get(0);
+                    ExportDocumentAction.export(mainPanel, target.file, target.options);
+                } else {
+                    // layout pages once per document mode (EDT):
+                    final Map<DocumentMode, DocumentExportable> documents = new HashMap<DocumentMode, DocumentExportable>(4);
+
+                    // encode formats one after the other (EDT):
+                    // charts are shared between documents and JFreeChart drawing is not thread-safe
+                    for (ExportTarget target : targets) {
+                        DocumentExportable document = documents.get(target.options.getMode());
+                        if (document == null) {
+                            document = mainPanel.prepareDocument(target.options);
+                            documents.put(target.options.getMode(), document);
+                        }
+                        try {
+                            ExportDocumentAction.export(document, target.file, target.options);
+                        } catch (Throwable th) {
+                            // unexpected errors:
+                            logger.error("doExport failure: {}", target.file, th);
+                            session.setFailed();
+                        }
+                    }
+                }
+                failed = false;
             } catch (Throwable th) {
                 // unexpected errors:
                 logger.error("doExport failure:", th);
             } finally {
-                // remove this listener from all alive listeners:
-                aliveListeners.remove(this);
-
-                // if no more listeners: stop !
-                if (aliveListeners.isEmpty()) {
-                    Bootstrapper.stopApp(0);
-                }
+                exportFinished(this, failed);
             }
         }
     }
@@ -23,8 +23,6 @@ import fr.jmmc.jmcs.util.FileUtils;
 import fr.jmmc.jmcs.util.StringUtils;
 import fr.jmmc.jmcs.util.concurrent.ParallelJobExecutor;
 import fr.jmmc.oiexplorer.core.export.DocumentOptions;
-import fr.jmmc.oiexplorer.core.export.ImageOptions;
-import fr.jmmc.oiexplorer.core.gui.OIFitsCheckerPanel;
 import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManager;
 import fr.jmmc.oiexplorer.gui.MainPanel;
 import fr.jmmc.oiexplorer.gui.PreferencePanel;
@@ -39,7 +37,6 @@ import fr.jmmc.oiexplorer.gui.action.RemoveOIFitsAction;
 import fr.jmmc.oiexplorer.gui.action.SaveOIDataCollectionAction;
 import fr.jmmc.oiexplorer.interop.SendOIFitsAction;
 import fr.jmmc.oitools.model.DataModel;
-import fr.jmmc.oitools.model.OIFitsChecker;
 import java.awt.BorderLayout;
 import java.awt.Container;
 import java.awt.Dimension;
@@ -84,6 +81,20 @@ public final class OIFitsExplorer extends App {
     public final static String ARG_MODE = "mode";
     /** choosing dimensions argument */
     public final static String ARG_DIMS = "dims";
+    /** export timeout argument */
+    public final static String ARG_TIMEOUT = "timeout";
+    /** batch export (manifest file) argument */
+    public final static String ARG_BATCH = "batch";
+    /** export every granule (target, instrument mode, night) argument */
+    public final static String ARG_GRANULES = "granules";
+    /** template override: OIFits file argument */
+    public final static String ARG_FILE = TemplateOverrides.KEY_FILE;
+    /** template override: target UID argument */
+    public final static String ARG_TARGET = TemplateOverrides.KEY_TARGET;
+    /** template override: instrument mode UID argument */
+    public final static String ARG_INSMODE = TemplateOverrides.KEY_INSMODE;
+    /** template override: night identifier argument */
+    public final static String ARG_NIGHT = TemplateOverrides.KEY_NIGHT;
 
     /* members */
     /** main Panel */
@@ -131,6 +142,20 @@ public final class OIFitsExplorer extends App {
         addCustomCommandLineArgument(ARG_MODE, true, " export mode [multi|single] page");
         addCustomCommandLineArgument(ARG_DIMS, true, " export image dimensions [width,height]",
                 App.ExecMode.TTY);
+        addCustomCommandLineArgument(ARG_TIMEOUT, true, " export timeout in seconds (default "
+                + ExportUtils.DEFAULT_TIMEOUT + ")", App.ExecMode.TTY);
+        addCustomCommandLineArgument(ARG_BATCH, true, "export plots of every oixp file listed in the given manifest file"
+                + " (-pdf/-png/-jpg then give output directories)", App.ExecMode.TTY);
+        addCustomCommandLineArgument(ARG_GRANULES, false, "export plots of every granule (target, instrument mode, night)"
+                + " of the opened oixp (-pdf/-png/-jpg then give output directories)", App.ExecMode.TTY);
+        addCustomCommandLineArgument(ARG_FILE, true, "template override: OIFits file replacing the files of the opened oixp",
+                App.ExecMode.TTY);
+        addCustomCommandLineArgument(ARG_TARGET, true, "template override: target UID of the subset filters",
+                App.ExecMode.TTY);
+        addCustomCommandLineArgument(ARG_INSMODE, true, "template override: instrument mode UID of the subset filters",
+                App.ExecMode.TTY);
+        addCustomCommandLineArgument(ARG_NIGHT, true, "template override: night identifier of the subset filters",
+                App.ExecMode.TTY);
     }
 
     /**
@@ -373,28 +398,23 @@ public final class OIFitsExplorer extends App {
                 final String url = (String) message.getParam("url");
 
                 if (!StringUtils.isEmpty(url)) {
-                    // bring this application to front and load data
+                    final URI uri = getURI(url);
+
+                    // bring this application to front:
                     SwingUtils.invokeLaterEDT(new Runnable() {
                         @Override
                         public void run() {
                             App.showFrameToFront();
-
-                            final OIFitsChecker checker = OIFitsChecker.newInstance();
-                            try {
-                                final long startTime = System.nanoTime();
-
-                                OIFitsCollectionManager.getInstance().loadOIFitsFile(url, checker);
-
-                                logger.info("LoadSampOIFitsAction: duration = {} ms.", 1e-6d * (System.nanoTime() - startTime));
-
-                            } catch (IOException ioe) {
-                                MessagePane.showErrorMessage(ioe.getMessage(), ioe.getCause());
-                                StatusBar.show(ioe.getMessage());
-                            } finally {
-                                OIFitsCheckerPanel.displayReport(checker, Preferences.getInstance());
-                            }
                         }
                     });
+
+                    // load data in background (files received meanwhile are loaded together):
+                    if (isLocalURI(uri)) {
+                        LoadOIFitsAction.queueOIFitsFile(getLocalFile(uri));
+                    } else {
+                        // remote file downloaded by the loading task (cancellable), keeping its source URL:
+                        LoadOIFitsAction.queueRemoteOIFitsFile(uri);
+                    }
                 }
             }
         };
@@ -407,37 +427,8 @@ public final class OIFitsExplorer extends App {
                 final OIFitsCollectionManager ocm = OIFitsCollectionManager.getInstance();
 
                 if (!StringUtils.isEmpty(url)) {
-                    URI uri;
-
                     try {
-                        uri = new URI(url);
-                    } catch (URISyntaxException use) {
-                        logger.error("invalid URI", use);
-
-                        throw new SampException("Can not read the file : " + url, use);
-                    }
-
-                    final File oixpFile;
-
-                    try {
-                        final String scheme = uri.getScheme();
-
-                        if (scheme.equalsIgnoreCase("file")) {
-                            try {
-                                oixpFile = new File(uri);
-                            } catch (IllegalArgumentException iae) {
-                                logger.debug("Invalid URI: {}", url, iae);
-                                throw new SampException("Invalid URI: " + url);
-                            }
-                        } else {
-                            final File file = FileUtils.getTempFile("samp-collection-", ".oixp");
-
-                            if (Http.download(uri, file, false)) {
-                                oixpFile = file;
-                            } else {
-                                throw new SampException("Can not read the file : " + url);
-                            }
-                        }
+                        final File oixpFile = getLocalFile(url, "samp-collection-", ".oixp");
 
                         // bring this application to front and load data
                         SwingUtils.invokeLaterEDT(new Runnable() {
@@ -449,7 +440,12 @@ public final class OIFitsExplorer extends App {
                         });
 
                     } catch (IOException ioe) {
-                        MessagePane.showErrorMessage("Can not read the collection file at :\n\n" + url);
+                        SwingUtils.invokeLaterEDT(new Runnable() {
+                            @Override
+                            public void run() {
+                                MessagePane.showErrorMessage("Can not read the collection file at :\n\n" + url);
+                            }
+                        });
 
                         throw new SampException("Can not read the file : " + url, ioe);
                     }
@@ -459,6 +455,70 @@ public final class OIFitsExplorer extends App {
         };
     }
 
+    /**
+     * Return the URI of the given URL
+     * @param url file URL
+     * @return URI
+     * @throws SampException if the URL is invalid
+     */
+    private static URI getURI(final String url) throws SampException {
+        try {
+            return new URI(url);
+        } catch (URISyntaxException use) {
+            logger.error("invalid URI", use);
+
+            throw new SampException("Can not read the file : " + url, use);
+        }
+    }
+
+    /**
+     * Return true if the given URI is a local file URI
+     * @param uri file URI
+     * @return true if the given URI is a local file URI
+     */
+    private static boolean isLocalURI(final URI uri) {
+        return "file".equalsIgnoreCase(uri.getScheme());
+    }
+
+    /**
+     * Return the local file of the given local file URI
+     * @param uri local file URI
+     * @return local file
+     * @throws SampException if the URI is invalid
+     */
+    private static File getLocalFile(final URI uri) throws SampException {
+        try {
+            return new File(uri);
+        } catch (IllegalArgumentException iae) {
+            logger.debug("Invalid URI: {}", uri, iae);
+            throw new SampException("Invalid URI: " + uri);
+        }
+    }
+
+    /**
+     * Return the local file corresponding to the given URL (remote files are downloaded into a temporary file)
+     * Note: blocking call (network), not to be called by EDT
+     * @param url file URL
+     * @param prefix temporary file prefix
+     * @param suffix temporary file suffix
+     * @return local file
+     * @throws SampException if the URL is invalid or the download failed
+     * @throws IOException if an I/O exception occurred
+     */
+    private static File getLocalFile(final String url, final String prefix, final String suffix) throws SampException, IOException {
+        final URI uri = getURI(url);
+
+        if (isLocalURI(uri)) {
+            return getLocalFile(uri);
+        }
+        final File file = FileUtils.getTempFile(prefix, suffix);
+
+        if (!Http.download(uri, file, false)) {
+            throw new SampException("Can not read the file : " + url);
+        }
+        return file;
+    }
+
     /**
      * check the arguments given by the user in TTY mode
      * and begin the exportation in pdf ,png, jpg or all if possible
@@ -471,46 +531,78 @@ public final class OIFitsExplorer extends App {
         final Map<String, String> argValues = getCommandLineArguments();
         logger.debug("processShellCommandLine: {}", argValues);
 
-        // note: open file is NOT done in background ...
-        final String fileArgument = argValues.get(CommandLineUtils.CLI_OPEN_KEY);
+        final String batchArgument = argValues.get(ARG_BATCH);
+        final boolean granules = argValues.containsKey(ARG_GRANULES);
+        final File fileOpen;
+
+        if (batchArgument != null) {
+            fileOpen = new File(batchArgument);
+        } else {
+            // note: open file is NOT done in background ...
+            final String fileArgument = argValues.get(CommandLineUtils.CLI_OPEN_KEY);
 
-        // required open file check:
-        if (fileArgument == null) {
-            throw new IllegalArgumentException("Missing file argument !");
+            // required open file check:
+            if (fileArgument == null) {
+                throw new IllegalArgumentException("Missing file argument !");
+            }
+            fileOpen = new File(fileArgument);
         }
-        final File fileOpen = new File(fileArgument);
 
         // same checks than LoadOIDataCollectionAction:
         if (!fileOpen.exists() || !fileOpen.isFile()) {
             throw new IllegalArgumentException("Could not load the file: " + fileOpen.getAbsolutePath());
         }
 
-        final String pdfFile = argValues.get(ARG_PDF);
-        final String pngFile = argValues.get(ARG_PNG);
-        final String jpgFile = argValues.get(ARG_JPG);
+        // export file (or output directory in batch mode) per format:
+        final Map<MimeType, String> outputs = new LinkedHashMap<MimeType, String>(4);
+        putIfDefined(outputs, MimeType.PDF, argValues.get(ARG_PDF));
+        putIfDefined(outputs, MimeType.PNG, argValues.get(ARG_PNG));
+        putIfDefined(outputs, MimeType.JPG, argValues.get(ARG_JPG));
+
+        if ((batchArgument != null || granules) && outputs.isEmpty()) {
+            throw new IllegalArgumentException("Missing output directory (-" + ARG_PDF + ", -" + ARG_PNG
+                    + " or -" + ARG_JPG + ") in " + ((batchArgument != null) ? "batch" : "granules") + " mode !");
+        }
+
         final String mode = argValues.get(ARG_MODE);
         final String dims = argValues.get(ARG_DIMS);
+        final long timeout = ExportUtils.parseTimeout(argValues.get(ARG_TIMEOUT));
+
+        // optional template overrides:
+        final TemplateOverrides overrides = new TemplateOverrides();
+        for (String key : new String[]{ARG_FILE, ARG_TARGET, ARG_INSMODE, ARG_NIGHT}) {
+            final String value = argValues.get(key);
+            if (value != null) {
+                overrides.set(key, value, null);
+            }
+        }
+
+        if (batchArgument != null && !overrides.isEmpty()) {
+            throw new IllegalArgumentException("Template overrides (-" + ARG_FILE + ", -" + ARG_TARGET + ", -" + ARG_INSMODE
+                    + " or -" + ARG_NIGHT + ") are not supported in batch mode: set them per manifest line !");
+        }
 
         try {
-            boolean doExportLater = false;
+            if (!outputs.isEmpty()) {
+                if (batchArgument == null && !granules) {
+                    for (Map.Entry<MimeType, String> e : outputs.entrySet()) {
+                        initializeExport(e.getValue(), e.getKey(), mode, dims);
+                    }
+                }
 
-            if (pdfFile != null) {
-                doExportLater = initializeExport(pdfFile, MimeType.PDF, mode, dims);
-            }
-            if (pngFile != null) {
-                doExportLater = initializeExport(pngFile, MimeType.PNG, mode, dims);
-            }
-            if (jpgFile != null) {
-                doExportLater = initializeExport(jpgFile, MimeType.JPG, mode, dims);
-            }
-            if (doExportLater) {
                 // Force UI scale to 1.0 for exported plots:
                 // Note: it must be called early (before creating any Plot view):
                 CommonPreferences.getInstance().setSystemUiScale(1.0f);
 
                 getMainPanel().prepareShellAction();
 
-                ExportUtils.loadDataAndWaitUntilExportDone();
+                if (batchArgument != null) {
+                    ExportUtils.exportBatch(fileOpen, outputs, mode, dims, timeout);
+                } else if (granules) {
+                    ExportUtils.exportGranules(fileOpen, overrides, outputs, mode, dims, timeout);
+                } else {
+                    ExportUtils.loadDataAndWaitUntilExportDone(fileOpen, overrides, timeout);
+                }
             }
 
         } catch (IOException ioe) {
@@ -520,16 +612,17 @@ public final class OIFitsExplorer extends App {
         logger.debug("processShellCommandLine: done.");
     }
 
+    private static void putIfDefined(final Map<MimeType, String> outputs, final MimeType mimeType, final String value) {
+        if (value != null) {
+            outputs.put(mimeType, value);
+        }
+    }
+
     private static boolean initializeExport(final String filePath, final MimeType mimeType,
                                             final String mode, final String dims) throws IOException {
 
         if (filePath != null) {
-            final DocumentOptions options = DocumentOptions.createInstance(mimeType).setMode(mode);
-
-            if (options instanceof ImageOptions) {
-                // specific to images:
-                ((ImageOptions) options).setDimensions(dims);
-            }
+            final DocumentOptions options = ExportUtils.createOptions(mimeType, mode, dims);
 
             final File file = new File(filePath).getAbsoluteFile();
 
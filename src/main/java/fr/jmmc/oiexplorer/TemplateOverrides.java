@@ -0,0 +1,324 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer;
+
+import fr.jmmc.jmcs.util.FileUtils;
+import fr.jmmc.oiexplorer.core.model.LoadOIFitsListener;
+import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManager;
+import fr.jmmc.oiexplorer.core.model.oi.SubsetDefinition;
+import fr.jmmc.oiexplorer.core.model.oi.SubsetFilter;
+import fr.jmmc.oiexplorer.gui.action.LoadOIDataCollectionAction;
+import fr.jmmc.oitools.model.OIFitsFile;
+import java.beans.PropertyChangeEvent;
+import java.io.File;
+import java.io.IOException;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Overrides applied to an oixp template (export mode):
+ * the OIFits file replaces the files of the template before loading it (template files are never loaded)
+ * and the filter values are set in all subset definitions once loaded and before the READY event.
+ * It replaces patching a copy of the template with xmlstarlet.
+ * @author bourgesl
+ */
+public final class TemplateOverrides {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(TemplateOverrides.class.getName());
+    /** OIFits file override key */
+    public final static String KEY_FILE = "file";
+    /** target UID override key */
+    public final static String KEY_TARGET = "target";
+    /** instrument mode UID override key */
+    public final static String KEY_INSMODE = "insmode";
+    /** night identifier override key */
+    public final static String KEY_NIGHT = "night";
+    /** oixp element of an OIData file (and of its path) */
+    private final static String ELEM_FILE = "file";
+    /** oixp element of an OIData file name */
+    private final static String ELEM_NAME = "name";
+
+    /* members */
+    /** OIFits file replacing the template files (optional) */
+    private File file = null;
+    /** target UID (optional) */
+    private String targetUID = null;
+    /** instrument mode UID (optional) */
+    private String insModeUID = null;
+    /** night identifier (optional) */
+    private Integer nightID = null;
+
+    /**
+     * Public constructor
+     */
+    public TemplateOverrides() {
+        super();
+    }
+
+    /**
+     * Define the override given its key
+     * @param key override key (file, target, insmode, night)
+     * @param value value
+     * @param baseDir directory used to resolve a relative file path (null means current directory)
+     * @throws IllegalArgumentException if the key or value is invalid
+     */
+    public void set(final String key, final String value, final File baseDir) throws IllegalArgumentException {
+        if (KEY_FILE.equalsIgnoreCase(key)) {
+            File f = new File(value);
+            if (!f.isAbsolute() && baseDir != null) {
+                f = new File(baseDir, value);
+            }
+            if (!f.isFile()) {
+                throw new IllegalArgumentException("Could not load the file: " + f.getAbsolutePath());
+            }
+            this.file = f.getAbsoluteFile();
+        } else if (KEY_TARGET.equalsIgnoreCase(key)) {
+            this.targetUID = value;
+        } else if (KEY_INSMODE.equalsIgnoreCase(key)) {
+            this.insModeUID = value;
+        } else if (KEY_NIGHT.equalsIgnoreCase(key)) {
+            try {
+                this.nightID = Integer.valueOf(value.trim());
+            } catch (NumberFormatException nfe) {
+                throw new IllegalArgumentException("Invalid night identifier: " + value, nfe);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported template override: " + key);
+        }
+    }
+
+    /**
+     * @return OIFits file replacing the template files or null
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return true if no override is defined
+     */
+    public boolean isEmpty() {
+        return (file == null) && (targetUID == null) && (insModeUID == null) && (nightID == null);
+    }
+
+    /**
+     * Load the given oixp template asynchronously, apply overrides then fire the READY event.
+     * The OIFits file override replaces the files of the template before loading it (template files are never loaded).
+     * Note: must be called by EDT
+     * @param template oixp template file
+     * @param ocm OIFitsCollectionManager instance
+     * @param failureHandler handler called (EDT) instead of firing the READY event
+     * if the loading was cancelled or no data was loaded
+     * @return true if the loading task was started; false if the template could not be loaded
+     */
+    public boolean loadTemplate(final File template, final OIFitsCollectionManager ocm, final Runnable failureHandler) {
+        // temporary copy (file override) deleted once loaded:
+        final File copy;
+
+        if (file != null) {
+            try {
+                copy = replaceFiles(template);
+            } catch (IOException ioe) {
+                logger.error("Could not process the template: {}", template, ioe);
+                return false;
+            }
+        } else {
+            copy = null;
+        }
+
+        boolean started = false;
+        try {
+            started = LoadOIDataCollectionAction.loadOIFitsCollectionFromFile((copy != null) ? copy : template, ocm, false,
+                    new LoadOIFitsListener() {
+
+                @Override
+                public void propertyChange(final PropertyChangeEvent pce) {
+                    // no progress
+                }
+
+                @Override
+                public void done(final boolean cancelled) {
+                    deleteCopy(copy);
+
+                    if (cancelled || !isLoaded(ocm)) {
+                        logger.error("Could not load data from {} ({})", template, (cancelled) ? "cancelled" : "no data");
+                        failureHandler.run();
+                    } else {
+                        applyAndFireReady(ocm);
+                    }
+                }
+            });
+        } finally {
+            if (!started) {
+                deleteCopy(copy);
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Delete the given temporary template copy
+     * @param copy temporary oixp file or null
+     */
+    private static void deleteCopy(final File copy) {
+        if (copy != null && copy.exists() && !copy.delete()) {
+            logger.warn("Could not delete the temporary file: {}", copy);
+        }
+    }
+
+    /**
+     * Apply filter overrides to the already loaded collection then fire the READY event
+     * Note: must be called by EDT
+     * @param ocm OIFitsCollectionManager instance
+     */
+    public void applyAndFireReady(final OIFitsCollectionManager ocm) {
+        if (!isEmpty()) {
+            applyFilter(ocm);
+        }
+        ocm.fireReady(this, null);
+    }
+
+    /**
+     * Return true if the collection has data (and the OIFits file override if defined)
+     * @param ocm OIFitsCollectionManager instance
+     * @return true if data are loaded
+     */
+    private boolean isLoaded(final OIFitsCollectionManager ocm) {
+        if (ocm.getOIFitsCollection().isEmpty()) {
+            return false;
+        }
+        if (file != null) {
+            final String filePath = file.getAbsolutePath();
+
+            for (OIFitsFile oiFitsFile : ocm.getOIFitsCollection().getOIFitsFiles()) {
+                if (filePath.equals(oiFitsFile.getAbsoluteFilePath())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Create a copy of the given oixp template where every OIData file (name and path) is replaced by the OIFits file override
+     * (same fields as the former xmlstarlet edits: //file/name and //file/file)
+     * Note: the template is parsed without any DOCTYPE nor external entity
+     * @param template oixp template file
+     * @return temporary oixp file
+     * @throws IOException if the template can not be read or the copy can not be written
+     */
+    File replaceFiles(final File template) throws IOException {
+        try {
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            factory.setXIncludeAware(false);
+            factory.setExpandEntityReferences(false);
+
+            final Document doc = factory.newDocumentBuilder().parse(template);
+
+            final NodeList nodes = doc.getElementsByTagName("*");
+            int n = 0;
+            for (int i = 0, len = nodes.getLength(); i < len; i++) {
+                final Node node = nodes.item(i);
+                final Node parent = node.getParentNode();
+
+                if (parent != null && ELEM_FILE.equals(getLocalName(parent))) {
+                    final String name = getLocalName(node);
+                    if (ELEM_NAME.equals(name)) {
+                        node.setTextContent(file.getName());
+                    } else if (ELEM_FILE.equals(name)) {
+                        node.setTextContent(file.getAbsolutePath());
+                        n++;
+                    }
+                }
+            }
+            logger.debug("replaceFiles: {} files replaced by {}", n, file);
+
+            final File copy = FileUtils.getTempFile("template-", ".oixp");
+            TransformerFactory.newInstance().newTransformer().transform(new DOMSource(doc), new StreamResult(copy));
+            return copy;
+
+        } catch (ParserConfigurationException pce) {
+            throw new IOException("Could not parse the template: " + template, pce);
+        } catch (SAXException se) {
+            throw new IOException("Could not parse the template: " + template, se);
+        } catch (TransformerException te) {
+            throw new IOException("Could not write the template copy: " + template, te);
+        }
+    }
+
+    /**
+     * @param node DOM node
+     * @return node name without namespace prefix
+     */
+    private static String getLocalName(final Node node) {
+        final String name = node.getNodeName();
+        final int pos = name.indexOf(':');
+        return (pos != -1) ? name.substring(pos + 1) : name;
+    }
+
+    /**
+     * Apply filter overrides to all subset definitions
+     * @param ocm OIFitsCollectionManager instance
+     */
+    private void applyFilter(final OIFitsCollectionManager ocm) {
+        for (String subsetId : ocm.getSubsetDefinitionIds()) {
+            final SubsetDefinition subsetCopy = ocm.getSubsetDefinition(subsetId);
+
+            if (subsetCopy != null) {
+                final SubsetFilter filter = subsetCopy.getFilter();
+                applyFilter(filter);
+
+                logger.debug("applyFilter: subset[{}] filter: {}", subsetId, filter);
+
+                // fire subset changed event (before READY):
+                ocm.updateSubsetDefinition(this, subsetCopy);
+            }
+        }
+    }
+
+    /**
+     * Apply filter overrides to the given subset filter:
+     * target, instrument mode and night values replace the template ones
+     * and table references are cleared if the OIFits file override is defined (template tables are not loaded)
+     * @param filter subset filter to modify
+     */
+    void applyFilter(final SubsetFilter filter) {
+        if (targetUID != null) {
+            filter.setTargetUID(targetUID);
+        }
+        if (insModeUID != null) {
+            filter.getInsModeUIDs().clear();
+            filter.getInsModeUIDs().add(insModeUID);
+        }
+        if (nightID != null) {
+            filter.getNightIDs().clear();
+            filter.getNightIDs().add(nightID);
+        }
+        if (file != null) {
+            // table references on template files are obsolete:
+            filter.getTables().clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TemplateOverrides{file=" + file + ", targetUID=" + targetUID
+                + ", insModeUID=" + insModeUID + ", nightID=" + nightID + '}';
+    }
+}
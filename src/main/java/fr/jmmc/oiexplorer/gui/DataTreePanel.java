@@ -28,18 +28,19 @@ import fr.jmmc.oitools.model.OITable;
 import fr.jmmc.oitools.model.Target;
 import fr.jmmc.oitools.model.TargetManager;
 import fr.jmmc.oitools.util.GranuleComparator;
-import java.awt.Component;
+import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import javax.swing.JTree;
+import java.util.concurrent.ExecutionException;
+import javax.swing.SwingWorker;
 import javax.swing.ToolTipManager;
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.event.TreeSelectionListener;
 import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeCellRenderer;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
 import org.slf4j.Logger;
@@ -73,6 +74,18 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
     private String subsetId = OIFitsCollectionManager.CURRENT_SUBSET_DEFINITION;
     /** Swing data tree */
     private GenericJTree<Object> dataTree;
+    /** true if a tree update is pending (events of the same batch are coalesced) */
+    private boolean updatePending = false;
+    /** true while the built tree is swapped and its selection restored (tree selection events are ignored) */
+    private boolean restoringSelection = false;
+    /** running tree build (newest wins) */
+    private transient BuildTreeWorker currentBuild = null;
+    /** index of the data tree nodes (replaced by updateTree) */
+    private TreeNodeIndex nodeIndex = new TreeNodeIndex();
+    /** tooltip per user object (identity) computed on demand */
+    private final Map<Object, String> tooltipCache = new IdentityHashMap<Object, String>();
+    /** temporary buffer (tooltips) */
+    private final StringBuilder tooltipBuf = new StringBuilder(256);
 
     /** Creates new form DataTreePanel */
     public DataTreePanel() {
@@ -95,6 +108,11 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
         }
 
         ocm.unbind(this);
+
+        if (currentBuild != null) {
+            currentBuild.cancel(true);
+            currentBuild = null;
+        }
     }
 
     /**
@@ -111,8 +129,6 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
 
         ToolTipManager.sharedInstance().registerComponent(dataTree);
 
-        dataTree.setCellRenderer(new TooltipTreeCellRenderer());
-
         // tree selection listener :
         dataTree.addTreeSelectionListener(this);
 
@@ -127,27 +143,22 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
         // force clean up ...
         setSubsetId(subsetId);
 
-        generateTree(oiFitsCollection);
-
-        final SubsetDefinition subsetRef = getSubsetDefinitionRef();
-
-        // ALWAYS select a target
         if (oiFitsCollection.isEmpty()) {
+            // no target to select: reset the subset filter now (the empty tree is built later):
             processSelection(null, null, null);
-        } else {
-            // Restore subset selection:
-            TreePath[] newSelection = null;
+        }
 
-            if (subsetRef != null) {
-                newSelection = computeSelectionFromSubsetFilter(subsetRef.getFilter(), oiFitsCollection);
-            }
+        // generate the tree once all pending events are processed (single build after a batch of events):
+        if (!updatePending) {
+            updatePending = true;
 
-            if ((newSelection == null) || (newSelection.length == 0)) {
-                // select first target :
-                dataTree.selectFirstChildNode(dataTree.getRootNode());
-            } else {
-                dataTree.selectPaths(newSelection);
-            }
+            SwingUtils.invokeLaterEDT(new Runnable() {
+                @Override
+                public void run() {
+                    updatePending = false;
+                    generateTree(ocm.getOIFitsCollection());
+                }
+            });
         }
     }
 
@@ -164,21 +175,36 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
     }
 
     /**
-     * Generate the tree from the current edited list of targets
+     * Generate the tree from the current edited list of targets:
+     * the tree is built in background then swapped in the displayed tree and the selection is restored
      * @param oiFitsCollection OIFitsCollection to process
      */
     private void generateTree(final OIFitsCollection oiFitsCollection) {
+        // newest wins: cancel any running build
+        if (currentBuild != null) {
+            currentBuild.cancel(true);
+        }
+        currentBuild = new BuildTreeWorker(this, oiFitsCollection);
+        currentBuild.execute();
+    }
 
-        final DefaultMutableTreeNode rootNode = dataTree.getRootNode();
-        rootNode.removeAllChildren();
+    /**
+     * Build the detached tree from the given collection snapshot
+     * @param snapshot collection snapshot
+     * @param index node index to fill
+     * @return detached root node or null if interrupted
+     */
+    private static DefaultMutableTreeNode buildTree(final GranuleSnapshot snapshot, final TreeNodeIndex index) {
+
+        final DefaultMutableTreeNode rootNode = new DefaultMutableTreeNode("Targets");
 
         // Sort granule by criteria (target / insMode / night):
         final GranuleComparator comparator = CMP_TARGET_INSMODE;
 
-        final List<Granule> granules = oiFitsCollection.getSortedGranules(comparator);
+        final List<Granule> granules = snapshot.getSortedGranules(comparator);
         logger.debug("granules sorted: {}", granules);
 
-        final Map<Granule, Set<OIData>> oiDataPerGranule = oiFitsCollection.getOiDataPerGranule();
+        final Map<Granule, Set<OIData>> oiDataPerGranule = snapshot.getOiDataPerGranule();
 
         // Add nodes and their data tables:
         final List<Granule.GranuleField> fields = comparator.getSortDirectives();
@@ -192,6 +218,10 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
         pathNodes[0] = rootNode;
 
         for (Granule granule : granules) {
+            // fast interrupt (build cancelled):
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
 
             // loop on fields:
             for (level = 1; level <= fieldsLen; level++) {
@@ -221,7 +251,7 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
                     }
                 }
 
-                pathNodes[level] = dataTree.addNode(pathNodes[level - 1], value);
+                pathNodes[level] = addNode(index, pathNodes[level - 1], value);
             }
 
             final DefaultMutableTreeNode parent = pathNodes[level - 1];
@@ -232,15 +262,87 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
                 // for now per OIData:
                 for (OITable table : oiDatas) {
                     // Avoid Table duplicates :
-                    if (GenericJTree.findTreeNode(parent, table) == null) {
-                        dataTree.addNode(parent, table);
+                    if (index.findChild(parent, table) == null) {
+                        addNode(index, parent, table);
                     }
                 }
             }
         }
+        return rootNode;
+    }
+
+    /**
+     * Create a new node, add it to the given parent node (detached tree) and index it
+     * @param index node index
+     * @param parent parent node
+     * @param userObject user object
+     * @return new node
+     */
+    private static DefaultMutableTreeNode addNode(final TreeNodeIndex index,
+                                                  final DefaultMutableTreeNode parent, final Object userObject) {
+        final DefaultMutableTreeNode node = new DefaultMutableTreeNode(userObject);
+        parent.add(node);
+        return index.add(node);
+    }
+
+    /**
+     * Swap the built tree into the displayed tree then restore the selection and update the subset filter
+     * in the same EDT step (tree selection events are ignored meanwhile)
+     * Note: called by EDT
+     * @param builtRoot built root node (detached)
+     * @param builtIndex node index of the built tree
+     * @param oiFitsCollection OIFitsCollection used to build the tree
+     */
+    private void updateTree(final DefaultMutableTreeNode builtRoot, final TreeNodeIndex builtIndex,
+                            final OIFitsCollection oiFitsCollection) {
+
+        restoringSelection = true;
+        try {
+            // Move built nodes to the root node (defined once):
+            final DefaultMutableTreeNode rootNode = dataTree.getRootNode();
+            rootNode.removeAllChildren();
+
+            final DefaultMutableTreeNode[] children = new DefaultMutableTreeNode[builtRoot.getChildCount()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = (DefaultMutableTreeNode) builtRoot.getChildAt(i);
+            }
+            builtRoot.removeAllChildren();
+
+            for (DefaultMutableTreeNode child : children) {
+                rootNode.add(child);
+            }
+            builtIndex.replaceParent(builtRoot, rootNode);
+            this.nodeIndex = builtIndex;
+            this.tooltipCache.clear();
+
+            // fire node structure changed :
+            dataTree.fireNodeChanged(rootNode);
+
+            // ALWAYS select a target (empty collection already processed by updateOIFitsCollection)
+            if (rootNode.getChildCount() != 0) {
+                final SubsetDefinition subsetRef = getSubsetDefinitionRef();
+
+                // Restore subset selection:
+                TreePath[] newSelection = null;
 
-        // fire node structure changed :
-        dataTree.fireNodeChanged(rootNode);
+                if (subsetRef != null) {
+                    newSelection = computeSelectionFromSubsetFilter(subsetRef.getFilter(), oiFitsCollection);
+                }
+
+                if ((newSelection == null) || (newSelection.length == 0)) {
+                    // select first target :
+                    newSelection = new TreePath[]{
+                        new TreePath(((DefaultMutableTreeNode) rootNode.getFirstChild()).getPath())
+                    };
+                }
+                dataTree.selectPaths(newSelection);
+
+                // update the subset filter from the restored selection:
+                updateSubsetFilterFromTreeSelection(newSelection);
+            }
+        } finally {
+            restoringSelection = false;
+        }
     }
 
     /**
@@ -250,6 +352,11 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
     @Override
     public void valueChanged(final TreeSelectionEvent e) {
 
+        if (restoringSelection) {
+            // selection restored and processed by updateTree:
+            return;
+        }
+
         final TreePath[] selection = dataTree.getSelectionPaths();
 
         if (selection != null) {
@@ -352,7 +459,7 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
             selection.add(new TreePath(firstTargetNode.getPath()));
         } else {
             final Target target = oiFitsCollection.getTargetManager().getGlobalByUID(filter.getTargetUID());
-            final DefaultMutableTreeNode targetTreeNode = dataTree.findTreeNode(target);
+            final DefaultMutableTreeNode targetTreeNode = nodeIndex.findChild(dataTree.getRootNode(), target);
 
             if (targetTreeNode != null) {
                 List<DefaultMutableTreeNode> insModeTreeNodes = null;
@@ -361,7 +468,7 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
                     final List<InstrumentMode> insModes = oiFitsCollection.getInstrumentModeManager().getGlobalsByUID(filter.getInsModeUIDs());
                     if (insModes != null) {
                         for (InstrumentMode insMode : insModes) {
-                            final DefaultMutableTreeNode insModeTreeNode = GenericJTree.findTreeNode(targetTreeNode, insMode);
+                            final DefaultMutableTreeNode insModeTreeNode = nodeIndex.findChild(targetTreeNode, insMode);
                             if (insModeTreeNode != null) {
                                 if (insModeTreeNodes == null) {
                                     insModeTreeNodes = new ArrayList<>();
@@ -385,22 +492,17 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
 
                         // for every table of the filter
                         for (TableUID tableUID : filter.getTables()) {
-
-                            final String filePath = tableUID.getFile().getFile();
                             final Integer extNb = tableUID.getExtNb();
 
-                            for (int j = 0, sizeJ = insNode.getChildCount(); j < sizeJ; j++) {
-                                final DefaultMutableTreeNode tableNode = (DefaultMutableTreeNode) insNode.getChildAt(j);
-                                final OITable oiTable = (OITable) tableNode.getUserObject();
-
-                                if (filePath.equals(oiTable.getOIFitsFile().getAbsoluteFilePath())) {
-                                    if ((extNb != null) && extNb.intValue() == oiTable.getExtNb()) {
-                                        if (tableTreeNodes == null) {
-                                            tableTreeNodes = new ArrayList<>();
-                                        }
-                                        tableTreeNodes.add(tableNode);
-                                        break;
+                            if (extNb != null) {
+                                final DefaultMutableTreeNode tableNode = nodeIndex.findTable(insNode,
+                                        tableUID.getFile().getFile(), extNb.intValue());
+
+                                if (tableNode != null) {
+                                    if (tableTreeNodes == null) {
+                                        tableTreeNodes = new ArrayList<>();
                                     }
+                                    tableTreeNodes.add(tableNode);
                                 }
                             }
                         }
@@ -595,6 +697,7 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
 
         switch (event.getType()) {
             case COLLECTION_CHANGED:
+                tooltipCache.clear();
                 updateOIFitsCollection(event.getOIFitsCollection());
                 break;
             case ACTIVE_PLOT_CHANGED:
@@ -613,6 +716,114 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
         return ocm.getOIFitsCollection().getTargetManager();
     }
 
+    /**
+     * Return the tooltip of the given user object (cached until the collection or the tree changes)
+     * @param userObject user object of the tree node
+     * @return tooltip or null
+     */
+    private String getCachedTooltipText(final Object userObject) {
+        String tooltip = tooltipCache.get(userObject);
+        if (tooltip == null && !tooltipCache.containsKey(userObject)) {
+            tooltip = getTreeTooltipText(userObject, tooltipBuf);
+            tooltipCache.put(userObject, tooltip);
+        }
+        return tooltip;
+    }
+
+    /**
+     * Return the tooltip (html) of the given user object
+     * @param value user object
+     * @param sb temporary buffer
+     * @return tooltip or null
+     */
+    private static String getTreeTooltipText(final Object value, final StringBuilder sb) {
+        sb.setLength(0);
+
+        if (value instanceof Target) {
+            final Target target = (Target) value;
+            sb.append("<b>name:</b> ").append(target.getTarget());
+
+            final List<String> aliases = getTargetManager().getSortedUniqueAliases(target);
+            if (aliases != null) {
+                sb.append("<hr>");
+                sb.append("<b>Aliases:</b><br>");
+                for (int j = 0, end = aliases.size(); j < end; j++) {
+                    if (j != 0) {
+                        sb.append("<br>");
+                    }
+                    sb.append("- ").append(aliases.get(j));
+                }
+                sb.append("<hr>");
+            } else {
+                sb.append("<br>");
+            }
+            sb.append("<b>Coords:</b> ");
+            ALX.toHMS(sb, target.getRaEp0());
+            sb.append(' ');
+            ALX.toDMS(sb, target.getDecEp0());
+
+            // TODO: check units
+            if (!Double.isNaN(target.getPmRa()) && !Double.isNaN(target.getPmDec())) {
+                // convert deg/year in mas/year :
+                sb.append("<br><b>Proper motion</b> (mas/yr): ").append(target.getPmRa() * ALX.DEG_IN_MILLI_ARCSEC)
+                        .append(' ').append(target.getPmDec() * ALX.DEG_IN_MILLI_ARCSEC);
+            }
+            if (!Double.isNaN(target.getParallax()) && !Double.isNaN(target.getParaErr())) {
+                sb.append("<br><b>Parallax</b> (mas): ").append(target.getParallax() * ALX.DEG_IN_MILLI_ARCSEC)
+                        .append(" [").append(target.getParaErr() * ALX.DEG_IN_MILLI_ARCSEC).append(']');
+            }
+            if ((target.getSpecTyp() != null) && !target.getSpecTyp().isEmpty()) {
+                sb.append("<br><b>Spectral types</b>: ").append(target.getSpecTyp());
+            }
+        } else if (value instanceof InstrumentMode) {
+            final InstrumentMode insMode = (InstrumentMode) value;
+            sb.append("<b>name:</b> ").append(insMode.getInsName());
+
+            final List<String> aliases = getInstrumentModeManager().getSortedUniqueAliases(insMode);
+            if (aliases != null) {
+                sb.append("<hr>");
+                sb.append("<b>Aliases:</b><br>");
+                for (int j = 0, end = aliases.size(); j < end; j++) {
+                    if (j != 0) {
+                        sb.append("<br>");
+                    }
+                    sb.append("- ").append(aliases.get(j));
+                }
+                sb.append("<hr>");
+            } else {
+                sb.append("<br>");
+            }
+            sb.append("<b>Nb channels:</b> ").append(insMode.getNbChannels());
+            sb.append("<br><b>Lambda min:</b> ").append(insMode.getLambdaMin());
+            sb.append("<br><b>Lambda max:</b> ").append(insMode.getLambdaMax());
+            sb.append("<br><b>Resolution:</b> ").append(insMode.getResPower());
+        } else if (value instanceof OIData) {
+            final OIData oiData = (OIData) value;
+            sb.append("<b>Table:</b> ").append(oiData.getExtName()).append('#').append(oiData.getExtNb());
+            sb.append("<br><b>OIFits:</b> ").append(oiData.getOIFitsFile().getFileName());
+            sb.append("<br><b>DATE-OBS:</b> ").append(oiData.getDateObs());
+            sb.append("<br><b>ARRNAME:</b> ").append(oiData.getArrName());
+            sb.append("<br><b>INSNAME:</b> ").append(oiData.getInsName());
+            sb.append("<br><b>NB_MEASUREMENTS:</b> ").append(oiData.getNbMeasurements());
+
+            sb.append("<br><b>Baselines:</b> ");
+            for (short[] staIndex : oiData.getDistinctStaIndex()) {
+                sb.append(oiData.getStaNames(staIndex)).append(' '); // cached
+            }
+            sb.append("<br><b>Configurations:</b> ");
+            for (short[] staConf : oiData.getDistinctStaConf()) {
+                sb.append(oiData.getStaNames(staConf)).append(' '); // cached
+            }
+        }
+        if (sb.length() == 0) {
+            return null;
+        } else {
+            sb.insert(0, "<html>");
+            sb.append("</html>");
+        }
+        return sb.toString();
+    }
+
     // TODO: share code with GranuleTreePanel ?
     private GenericJTree<Object> createTree() {
         return new GenericJTree<Object>(null, TreeSelectionModel.DISCONTIGUOUS_TREE_SELECTION) {
@@ -622,6 +833,20 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
             /** temporary buffer */
             private final StringBuilder tmpBuf = new StringBuilder(64);
 
+            /**
+             * Return the tooltip of the node under the mouse (computed once per node)
+             * @param me mouse event
+             * @return tooltip or null
+             */
+            @Override
+            public String getToolTipText(final MouseEvent me) {
+                final TreePath path = getPathForLocation(me.getX(), me.getY());
+                if (path != null) {
+                    return getCachedTooltipText(((DefaultMutableTreeNode) path.getLastPathComponent()).getUserObject());
+                }
+                return null;
+            }
+
             @Override
             protected String convertUserObjectToString(final Object userObject) {
                 if (userObject instanceof Target) {
@@ -661,115 +886,64 @@ public final class DataTreePanel extends javax.swing.JPanel implements TreeSelec
         };
     }
 
-    private final static class TooltipTreeCellRenderer extends DefaultTreeCellRenderer {
-
-        private static final long serialVersionUID = 1L;
-
-        /** temporary buffer */
-        private final StringBuilder tmpBuf = new StringBuilder(64);
+    /**
+     * Build the data tree in background then swap it into the displayed tree using EDT
+     * Note: runs on the SwingWorker threads (not the shared task executor blocked by long loading tasks)
+     */
+    private static final class BuildTreeWorker extends SwingWorker<DefaultMutableTreeNode, Void> {
+
+        /* members */
+        /** data tree panel to refresh */
+        private final DataTreePanel panel;
+        /** OIFitsCollection to process */
+        private final OIFitsCollection oiFitsCollection;
+        /** collection snapshot */
+        private final GranuleSnapshot snapshot;
+        /** node index of the built tree */
+        private final TreeNodeIndex index = new TreeNodeIndex();
+
+        /**
+         * Hidden constructor
+         * Note: must be called by EDT (collection snapshot)
+         * @param panel data tree panel to refresh
+         * @param oiFitsCollection OIFitsCollection to process
+         */
+        BuildTreeWorker(final DataTreePanel panel, final OIFitsCollection oiFitsCollection) {
+            this.panel = panel;
+            this.oiFitsCollection = oiFitsCollection;
+            this.snapshot = new GranuleSnapshot(oiFitsCollection);
+        }
 
+        /**
+         * Sort granules and build the detached tree
+         * This code is executed by a Worker thread (Not Swing EDT)
+         * @return built root node or null if cancelled
+         */
         @Override
-        public Component getTreeCellRendererComponent(JTree tree, Object value,
-                                                      boolean sel, boolean expanded, boolean leaf, int row,
-                                                      boolean hasFocus) {
-
-            if (value != null) {
-                final Object userObject;
-                if (value instanceof DefaultMutableTreeNode) {
-                    userObject = ((DefaultMutableTreeNode) value).getUserObject();
-                    setToolTipText(getTreeTooltipText(userObject, tmpBuf));
-                }
-            }
-            return super.getTreeCellRendererComponent(tree, value, sel,
-                    expanded, leaf, row, hasFocus);
+        protected DefaultMutableTreeNode doInBackground() {
+            return buildTree(snapshot, index);
         }
 
-        private String getTreeTooltipText(final Object value, final StringBuilder sb) {
-            sb.setLength(0);
-
-            if (value instanceof Target) {
-                final Target target = (Target) value;
-                sb.append("<b>name:</b> ").append(target.getTarget());
-
-                final List<String> aliases = getTargetManager().getSortedUniqueAliases(target);
-                if (aliases != null) {
-                    sb.append("<hr>");
-                    sb.append("<b>Aliases:</b><br>");
-                    for (int j = 0, end = aliases.size(); j < end; j++) {
-                        if (j != 0) {
-                            sb.append("<br>");
-                        }
-                        sb.append("- ").append(aliases.get(j));
-                    }
-                    sb.append("<hr>");
-                } else {
-                    sb.append("<br>");
-                }
-                sb.append("<b>Coords:</b> ");
-                ALX.toHMS(sb, target.getRaEp0());
-                sb.append(' ');
-                ALX.toDMS(sb, target.getDecEp0());
-
-                // TODO: check units
-                if (!Double.isNaN(target.getPmRa()) && !Double.isNaN(target.getPmDec())) {
-                    // convert deg/year in mas/year :
-                    sb.append("<br><b>Proper motion</b> (mas/yr): ").append(target.getPmRa() * ALX.DEG_IN_MILLI_ARCSEC)
-                            .append(' ').append(target.getPmDec() * ALX.DEG_IN_MILLI_ARCSEC);
-                }
-                if (!Double.isNaN(target.getParallax()) && !Double.isNaN(target.getParaErr())) {
-                    sb.append("<br><b>Parallax</b> (mas): ").append(target.getParallax() * ALX.DEG_IN_MILLI_ARCSEC)
-                            .append(" [").append(target.getParaErr() * ALX.DEG_IN_MILLI_ARCSEC).append(']');
-                }
-                if ((target.getSpecTyp() != null) && !target.getSpecTyp().isEmpty()) {
-                    sb.append("<br><b>Spectral types</b>: ").append(target.getSpecTyp());
-                }
-            } else if (value instanceof InstrumentMode) {
-                final InstrumentMode insMode = (InstrumentMode) value;
-                sb.append("<b>name:</b> ").append(insMode.getInsName());
-
-                final List<String> aliases = getInstrumentModeManager().getSortedUniqueAliases(insMode);
-                if (aliases != null) {
-                    sb.append("<hr>");
-                    sb.append("<b>Aliases:</b><br>");
-                    for (int j = 0, end = aliases.size(); j < end; j++) {
-                        if (j != 0) {
-                            sb.append("<br>");
-                        }
-                        sb.append("- ").append(aliases.get(j));
-                    }
-                    sb.append("<hr>");
-                } else {
-                    sb.append("<br>");
-                }
-                sb.append("<b>Nb channels:</b> ").append(insMode.getNbChannels());
-                sb.append("<br><b>Lambda min:</b> ").append(insMode.getLambdaMin());
-                sb.append("<br><b>Lambda max:</b> ").append(insMode.getLambdaMax());
-                sb.append("<br><b>Resolution:</b> ").append(insMode.getResPower());
-            } else if (value instanceof OIData) {
-                final OIData oiData = (OIData) value;
-                sb.append("<b>Table:</b> ").append(oiData.getExtName()).append('#').append(oiData.getExtNb());
-                sb.append("<br><b>OIFits:</b> ").append(oiData.getOIFitsFile().getFileName());
-                sb.append("<br><b>DATE-OBS:</b> ").append(oiData.getDateObs());
-                sb.append("<br><b>ARRNAME:</b> ").append(oiData.getArrName());
-                sb.append("<br><b>INSNAME:</b> ").append(oiData.getInsName());
-                sb.append("<br><b>NB_MEASUREMENTS:</b> ").append(oiData.getNbMeasurements());
-
-                sb.append("<br><b>Baselines:</b> ");
-                for (short[] staIndex : oiData.getDistinctStaIndex()) {
-                    sb.append(oiData.getStaNames(staIndex)).append(' '); // cached
-                }
-                sb.append("<br><b>Configurations:</b> ");
-                for (short[] staConf : oiData.getDistinctStaConf()) {
-                    sb.append(oiData.getStaNames(staConf)).append(' '); // cached
-                }
+        /**
+         * Swap the built tree into the displayed tree unless this build was cancelled or superseded
+         * This code is executed by the Swing Event Dispatcher thread (EDT)
+         */
+        @Override
+        protected void done() {
+            if (isCancelled() || panel.currentBuild != this) {
+                return;
             }
-            if (sb.length() == 0) {
-                return null;
-            } else {
-                sb.insert(0, "<html>");
-                sb.append("</html>");
+            panel.currentBuild = null;
+            try {
+                final DefaultMutableTreeNode builtRoot = get();
+                if (builtRoot != null) {
+                    panel.updateTree(builtRoot, index, oiFitsCollection);
+                }
+            } catch (InterruptedException ie) {
+                logger.debug("tree build interrupted", ie);
+            } catch (ExecutionException ee) {
+                logger.error("tree build failure", ee.getCause());
             }
-            return sb.toString();
         }
     }
 }
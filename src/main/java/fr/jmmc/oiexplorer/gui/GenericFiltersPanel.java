@@ -20,12 +20,16 @@ import fr.jmmc.oitools.processing.SelectorResult;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
+import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.swing.JButton;
 import javax.swing.JPanel;
+import javax.swing.Timer;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import org.slf4j.Logger;
@@ -50,6 +54,8 @@ public final class GenericFiltersPanel extends javax.swing.JPanel
 
     private final static int IDX_DEL_BUTTON = 0;
     private final static int IDX_FILTER_EDITOR = 1;
+    /** delay (ms) before filter edits are applied to the subset definition */
+    private final static int UPDATE_MODEL_DELAY = 300;
 
     /* members */
     /** List of GenericFilterEditor for each GenericFilter in the current SubsetDefinition */
@@ -61,10 +67,33 @@ public final class GenericFiltersPanel extends javax.swing.JPanel
     /** when true, disables handler of Changes set on GenericFilterEditors. Used in updateGUI(). */
     private boolean updatingGUI = false;
 
+    /** collection version (incremented when the collection changes) */
+    private int collectionVersion = 0;
+    /** collection version of the last column names lookup */
+    private int lastCollectionVersion = -1;
+    /** selector result of the last column names lookup (memo key, identity) */
+    private transient SelectorResult lastSelectorResult = null;
+    /** numerical column names of the last lookup (memoized) */
+    private transient Set<String> lastNumericalColumnNames = null;
+    /** column names currently shown in the combo box */
+    private transient Set<String> shownColumnNames = null;
+
+    /** timer coalescing successive filter edits into one updateModel() call */
+    private final transient Timer updateModelTimer;
+    /** identifier of the subset definition the pending edit was made on */
+    private String editSubsetId = null;
+
+    /** column ranges per column name (cleared when the collection changes) */
+    private final transient Map<String, fr.jmmc.oitools.model.range.Range> columnRangeCache = new HashMap<>(16);
+    /** distinct values (or null) per column name (cleared when the collection changes) */
+    private final transient Map<String, List<String>> distinctValuesCache = new HashMap<>(16);
+
     /** Creates new form GenericFiltersPanel */
     public GenericFiltersPanel() {
         initComponents();
         this.nameComboBoxModel = new GenericListModel<String>(new ArrayList<String>(25), true);
+        this.updateModelTimer = new Timer(UPDATE_MODEL_DELAY, (ActionEvent ae) -> updateModel());
+        this.updateModelTimer.setRepeats(false);
         postInit();
     }
 
@@ -72,6 +101,7 @@ public final class GenericFiltersPanel extends javax.swing.JPanel
      * This method is useful to set the models and specific features of initialized swing components :
      */
     private void postInit() {
+        ocm.bindCollectionChanged(this);
         ocm.bindSubsetDefinitionChanged(this);
 
         jComboBoxColumnName.setModel(nameComboBoxModel);
@@ -87,6 +117,7 @@ public final class GenericFiltersPanel extends javax.swing.JPanel
     /** Removes listeners references */
     @Override
     public void dispose() {
+        updateModelTimer.stop();
         genericFilterEditorList.forEach(GenericFilterEditor::dispose);
         ocm.unbind(this);
     }
@@ -97,6 +128,9 @@ public final class GenericFiltersPanel extends javax.swing.JPanel
     private void updateModel() {
         logger.debug("updateModel");
 
+        // pending edits are applied now:
+        updateModelTimer.stop();
+
         final SubsetDefinition subsetCopy = ocm.getCurrentSubsetDefinition();
         subsetCopy.setHideFilteredData(!this.jToggleButtonShow.isSelected());
 
@@ -129,27 +163,66 @@ public final class GenericFiltersPanel extends javax.swing.JPanel
                 jToggleButtonShow.setSelected(!subsetDefinition.isHideFilteredData());
                 updateToggleButtonShowLabel();
 
-                // clear and recreate column name choices:
-                nameComboBoxModel.clear();
-                nameComboBoxModel.addAll(Selector.SPECIAL_COLUMN_NAMES);
+                // update column choices from SelectorResult (only if changed):
+                final Set<String> columnNames = getDistinctNumericalColumnNames(selectorResult);
+
+                if (!columnNames.equals(shownColumnNames)) {
+                    shownColumnNames = columnNames;
 
-                // update column choices from SelectorResult:
-                nameComboBoxModel.addAll(getDistinctNumericalColumnNames(selectorResult));
+                    // clear and recreate column name choices:
+                    nameComboBoxModel.clear();
+                    nameComboBoxModel.addAll(Selector.SPECIAL_COLUMN_NAMES);
+                    nameComboBoxModel.addAll(columnNames);
+                }
 
                 if (jComboBoxColumnName.getSelectedIndex() == -1) {
                     jComboBoxColumnName.setSelectedIndex(0);
                 }
 
-                // clear and re-create GenericFilterEditors:
-                jPanelGenericFilters.removeAll();
-                genericFilterEditorList.forEach(GenericFilterEditor::dispose);
-                genericFilterEditorList.clear();
+                boolean reconcile = true;
+
+                if (updateModelTimer.isRunning()) {
+                    updateModelTimer.stop();
+
+                    if (subsetDefinition.getId().equals(editSubsetId)) {
+                        // pending edit on the same subset: apply it now, editors already show its filters
+                        logger.debug("updateGUI: pending edit flushed");
+                        updateModel();
+                        reconcile = false;
+                    } else {
+                        // pending edit on another subset: discard it
+                        logger.debug("updateGUI: pending edit discarded (subset {} != {})",
+                                subsetDefinition.getId(), editSubsetId);
+                    }
+                }
+                if (reconcile) {
+                    // reconcile GenericFilterEditors in place:
+                    final List<GenericFilter> genericFilters = subsetDefinition.getGenericFilters();
+                    final int nFilters = genericFilters.size();
+
+                    // remove extra editors (last added first):
+                    for (int i = genericFilterEditorList.size() - 1; i >= nFilters; i--) {
+                        final GenericFilterEditor genericFilterEditor = genericFilterEditorList.remove(i);
+                        final JPanel panel = (JPanel) genericFilterEditor.getParent();
+                        ((JButton) panel.getComponent(IDX_DEL_BUTTON)).removeActionListener(this);
+                        jPanelGenericFilters.remove(panel);
+                        genericFilterEditor.dispose();
+                    }
+
+                    for (int i = 0; i < nFilters; i++) {
+                        final GenericFilter genericFilterCopy = Identifiable.clone(genericFilters.get(i));
 
-                for (GenericFilter genericFilter : subsetDefinition.getGenericFilters()) {
-                    addGenericFilterEditor(Identifiable.clone(genericFilter));
+                        if (i < genericFilterEditorList.size()) {
+                            // update existing editor:
+                            genericFilterEditorList.get(i).setGenericFilter(genericFilterCopy);
+                        } else {
+                            addGenericFilterEditor(genericFilterCopy);
+                        }
+                    }
                 }
 
                 revalidate();
+                repaint();
             }
 
             // Always update CLI args:
@@ -216,15 +289,14 @@ public final class GenericFiltersPanel extends javax.swing.JPanel
 
             switch (dataType) {
                 case NUMERIC:
-                    final fr.jmmc.oitools.model.range.Range oitoolsRange
-                                                            = ocm.getOIFitsCollection().getColumnRange(columnName);
+                    final fr.jmmc.oitools.model.range.Range oitoolsRange = getColumnRange(columnName);
                     final Range range = new Range();
                     range.setMin(Double.isFinite(oitoolsRange.getMin()) ? oitoolsRange.getMin() : Double.NaN);
                     range.setMax(Double.isFinite(oitoolsRange.getMax()) ? oitoolsRange.getMax() : Double.NaN);
                     newGenericFilter.getAcceptedRanges().add(range);
                     break;
                 case STRING:
-                    final List<String> initValues = ocm.getOIFitsCollection().getDistinctValues(columnName);
+                    final List<String> initValues = getDistinctValues(columnName);
                     if (initValues != null) {
                         newGenericFilter.getAcceptedValues().addAll(initValues);
                     }
@@ -238,6 +310,34 @@ public final class GenericFiltersPanel extends javax.swing.JPanel
         }
     }
 
+    /**
+     * Return the range of the given column in the OIFits collection (cached)
+     * @param columnName column name
+     * @return column range
+     */
+    private fr.jmmc.oitools.model.range.Range getColumnRange(final String columnName) {
+        fr.jmmc.oitools.model.range.Range range = columnRangeCache.get(columnName);
+        if (range == null) {
+            range = ocm.getOIFitsCollection().getColumnRange(columnName);
+            columnRangeCache.put(columnName, range);
+        }
+        return range;
+    }
+
+    /**
+     * Return the distinct values of the given column in the OIFits collection (cached)
+     * @param columnName column name
+     * @return distinct values or null
+     */
+    private List<String> getDistinctValues(final String columnName) {
+        if (distinctValuesCache.containsKey(columnName)) {
+            return distinctValuesCache.get(columnName);
+        }
+        final List<String> values = ocm.getOIFitsCollection().getDistinctValues(columnName);
+        distinctValuesCache.put(columnName, values);
+        return values;
+    }
+
     /** Handler for the Del button. removes the generic filter editor associated to the button */
     private void handleDelGenericFilter(final JButton delButton) {
         if (!updatingGUI) {
@@ -265,14 +365,16 @@ public final class GenericFiltersPanel extends javax.swing.JPanel
         }
     }
 
-    /** Listener on changes on GenericFilterEditors
+    /** Listener on changes on GenericFilterEditors:
+     * successive edits (slider drag, typing) are applied once no edit occurred during UPDATE_MODEL_DELAY
      *
      * @param ce Event
      */
     @Override
     public void stateChanged(ChangeEvent ce) {
         if (!updatingGUI) {
-            updateModel();
+            editSubsetId = ocm.getCurrentSubsetDefinitionRef().getId();
+            updateModelTimer.restart();
         }
     }
 
@@ -296,6 +398,12 @@ public final class GenericFiltersPanel extends javax.swing.JPanel
         logger.debug("onProcess begin {}", event);
 
         switch (event.getType()) {
+            case COLLECTION_CHANGED:
+                // column statistics are obsolete:
+                columnRangeCache.clear();
+                distinctValuesCache.clear();
+                collectionVersion++;
+                break;
             case SUBSET_CHANGED:
                 updateGUI(event.getSources().contains(this), event.getSubsetDefinition());
                 break;
@@ -306,12 +414,20 @@ public final class GenericFiltersPanel extends javax.swing.JPanel
 
     /**
      * Return the set of distinct columns available in tables of the given SelectorResult.
+     * Note: column names are memoized per collection version and selector result (identity),
+     * checked before the data model is looked up
      *
      * @param selectorResult Selector result from plot's subset definition
      * @return a Set of Strings with every distinct column names
      */
-    private static Set<String> getDistinctNumericalColumnNames(final SelectorResult selectorResult) {
-        return BaseSelectorResult.getDataModel(selectorResult).getNumericalColumnNames();
+    private Set<String> getDistinctNumericalColumnNames(final SelectorResult selectorResult) {
+        if (lastNumericalColumnNames == null
+                || collectionVersion != lastCollectionVersion || selectorResult != lastSelectorResult) {
+            lastCollectionVersion = collectionVersion;
+            lastSelectorResult = selectorResult;
+            lastNumericalColumnNames = BaseSelectorResult.getDataModel(selectorResult).getNumericalColumnNames();
+        }
+        return lastNumericalColumnNames;
     }
 
     /**
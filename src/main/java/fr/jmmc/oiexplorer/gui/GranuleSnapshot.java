@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.gui;
+
+import fr.jmmc.oitools.model.Granule;
+import fr.jmmc.oitools.model.OIData;
+import fr.jmmc.oitools.model.OIFitsCollection;
+import fr.jmmc.oitools.util.GranuleComparator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable copy of the granules and their OIData tables of an OIFitsCollection
+ * taken by the EDT and used by background workers to build trees
+ *
+ * @author bourgesl
+ */
+final class GranuleSnapshot {
+
+    /* members */
+    /** OIData tables per granule (copy) */
+    private final Map<Granule, Set<OIData>> oiDataPerGranule;
+    /** number of OIFits files */
+    private final int nOIFitsFiles;
+    /** number of distinct OIData tables */
+    private final int nTables;
+
+    /**
+     * Create a snapshot of the given collection
+     * Note: must be called by EDT
+     * @param oiFitsCollection OIFitsCollection to copy
+     */
+    GranuleSnapshot(final OIFitsCollection oiFitsCollection) {
+        final Map<Granule, Set<OIData>> map = oiFitsCollection.getOiDataPerGranule();
+
+        this.oiDataPerGranule = new HashMap<Granule, Set<OIData>>(2 * map.size());
+        // a table may belong to several granules: count it once (identity)
+        final Set<OIData> tables = Collections.newSetFromMap(new IdentityHashMap<OIData, Boolean>());
+        for (Map.Entry<Granule, Set<OIData>> e : map.entrySet()) {
+            this.oiDataPerGranule.put(e.getKey(), Collections.unmodifiableSet(new LinkedHashSet<OIData>(e.getValue())));
+            tables.addAll(e.getValue());
+        }
+        this.nTables = tables.size();
+        this.nOIFitsFiles = oiFitsCollection.size();
+    }
+
+    /**
+     * Return the granules sorted by the given comparator
+     * @param comparator granule comparator
+     * @return new sorted list of granules
+     */
+    List<Granule> getSortedGranules(final GranuleComparator comparator) {
+        final List<Granule> granules = new ArrayList<Granule>(oiDataPerGranule.keySet());
+        Collections.sort(granules, comparator);
+        return granules;
+    }
+
+    /**
+     * @return OIData tables per granule (read-only)
+     */
+    Map<Granule, Set<OIData>> getOiDataPerGranule() {
+        return Collections.unmodifiableMap(oiDataPerGranule);
+    }
+
+    /**
+     * @return number of granules
+     */
+    int getNbGranules() {
+        return oiDataPerGranule.size();
+    }
+
+    /**
+     * @return number of distinct OIData tables
+     */
+    int getNbTables() {
+        return nTables;
+    }
+
+    /**
+     * @return number of OIFits files
+     */
+    int getNbOIFitsFiles() {
+        return nOIFitsFiles;
+    }
+}
@@ -26,18 +26,25 @@ import fr.jmmc.oitools.model.OIData;
 import fr.jmmc.oitools.model.OIFitsCollection;
 import fr.jmmc.oitools.model.OITable;
 import fr.jmmc.oitools.model.Target;
-import java.awt.Component;
+import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import javax.swing.JTree;
+import java.util.concurrent.ExecutionException;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.ToolTipManager;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.event.TableColumnModelEvent;
 import javax.swing.event.TableColumnModelListener;
 import javax.swing.event.TableModelEvent;
@@ -46,7 +53,8 @@ import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
 import javax.swing.table.TableModel;
 import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeCellRenderer;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,6 +75,8 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
     /* constants */
     /** Show root of granule tree */
     private static final boolean SHOW_DATATREE_ROOTVISIBLE = false;
+    /** maximum number of tables to expand all nodes (above, file and table nodes are only created when expanded by the user) */
+    private static final int EXPAND_ALL_MAX_TABLES = 2000;
 
     /* members */
     /** OIFitsCollectionManager singleton reference */
@@ -75,6 +85,14 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
     private GenericJTree<Object> dataTree;
     /** temporary buffer */
     private final StringBuilder tmpBuf = new StringBuilder(64);
+    /** tooltip per user object (identity) computed on demand */
+    private final Map<Object, String> tooltipCache = new IdentityHashMap<Object, String>();
+    /** number of tables in the displayed tree */
+    private int nbTables = 0;
+    /** true if a tree update is pending (events of the same batch are coalesced) */
+    private boolean updatePending = false;
+    /** running tree build (newest wins) */
+    private transient BuildTreeWorker currentBuild = null;
 
     /** Creates new GranuleTreePanel */
     public GranuleTreePanel() {
@@ -96,6 +114,11 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
         }
 
         ocm.unbind(this);
+
+        if (currentBuild != null) {
+            currentBuild.cancel(true);
+            currentBuild = null;
+        }
     }
 
     /**
@@ -113,6 +136,20 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
             /** default serial UID for Serializable interface */
             private static final long serialVersionUID = 1;
 
+            /**
+             * Return the tooltip of the node under the mouse (computed once per node)
+             * @param me mouse event
+             * @return tooltip or null
+             */
+            @Override
+            public String getToolTipText(final MouseEvent me) {
+                final TreePath path = getPathForLocation(me.getX(), me.getY());
+                if (path != null) {
+                    return getCachedTooltipText(((DefaultMutableTreeNode) path.getLastPathComponent()).getUserObject());
+                }
+                return null;
+            }
+
             @Override
             protected String convertUserObjectToString(final Object userObject) {
                 if (userObject instanceof Target) {
@@ -143,7 +180,29 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
 
         ToolTipManager.sharedInstance().registerComponent(dataTree);
 
-        dataTree.setCellRenderer(new TooltipTreeCellRenderer());
+        // create children of lazy nodes when expanded:
+        dataTree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(final TreeExpansionEvent event) {
+                final Object node = event.getPath().getLastPathComponent();
+
+                if ((node instanceof LazyGranuleNode) && !((LazyGranuleNode) node).isLoaded()) {
+                    final LazyGranuleNode lazyNode = (LazyGranuleNode) node;
+                    lazyNode.load();
+
+                    final int[] indices = new int[lazyNode.getChildCount()];
+                    for (int i = 0; i < indices.length; i++) {
+                        indices[i] = i;
+                    }
+                    ((DefaultTreeModel) dataTree.getModel()).nodesWereInserted(lazyNode, indices);
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(final TreeExpansionEvent event) {
+                // no-op
+            }
+        });
 
         dataTree.setRootVisible(SHOW_DATATREE_ROOTVISIBLE);
 
@@ -201,11 +260,23 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
      * @param oiFitsCollection OIFitsCollection to process
      */
     private void updateOIFitsCollection(final OIFitsCollection oiFitsCollection) {
-        generateTree(oiFitsCollection);
+        // generate the tree once all pending events are processed (single build after a batch of events):
+        if (!updatePending) {
+            updatePending = true;
+
+            SwingUtils.invokeLaterEDT(new Runnable() {
+                @Override
+                public void run() {
+                    updatePending = false;
+                    generateTree(ocm.getOIFitsCollection());
+                }
+            });
+        }
     }
 
     /**
-     * Generate the tree from the current edited list of targets
+     * Generate the tree from the current edited list of targets:
+     * a detached tree is built in background then merged into the displayed tree (only changed nodes are inserted or removed)
      * @param oiFitsCollection OIFitsCollection to process
      */
     private void generateTree(final OIFitsCollection oiFitsCollection) {
@@ -241,17 +312,70 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
         final GranuleComparator comparator = (selectedFields.isEmpty()) ? GranuleComparator.DEFAULT
                 : new GranuleComparator(selectedFields);
 
-        // Reset root content of datatree:
+        // Build the new tree (detached) in background from a snapshot of the collection:
+        // newest wins: cancel any running build
+        if (currentBuild != null) {
+            currentBuild.cancel(true);
+        }
+        currentBuild = new BuildTreeWorker(this, new GranuleSnapshot(oiFitsCollection), comparator, showFile, showOITable);
+        currentBuild.execute();
+    }
+
+    /**
+     * Merge the given built tree into the displayed tree (fine-grained insert / remove events)
+     * Note: called by EDT
+     * @param builtRoot built root node (detached)
+     * @param snapshot collection snapshot used to build the tree
+     */
+    private void updateTree(final DefaultMutableTreeNode builtRoot, final GranuleSnapshot snapshot) {
         final DefaultMutableTreeNode rootNode = dataTree.getRootNode();
-        rootNode.removeAllChildren();
+        final List<DefaultMutableTreeNode> insertedNodes = new ArrayList<DefaultMutableTreeNode>();
+
+        mergeChildren((DefaultTreeModel) dataTree.getModel(), rootNode, builtRoot, insertedNodes);
 
-        final List<Granule> granules = oiFitsCollection.getSortedGranules(comparator);
-        logger.debug("granules sorted: {}", granules);
+        // user objects may have been replaced:
+        tooltipCache.clear();
 
-        final Map<Granule, Set<OIData>> oiDataPerGranule = oiFitsCollection.getOiDataPerGranule();
+        logger.debug("updateTree: {} inserted nodes", insertedNodes.size());
+
+        jLabelStats.setText(snapshot.getNbGranules() + " granules, " + snapshot.getNbOIFitsFiles() + " oifits");
+
+        this.nbTables = snapshot.getNbTables();
+
+        // only expand new nodes (preserve expansion state of existing nodes):
+        if (jToggleButtonExpandTree.isSelected()) {
+            final boolean expandLazy = isExpandLazy();
+
+            for (DefaultMutableTreeNode node : insertedNodes) {
+                final DefaultMutableTreeNode parent = (DefaultMutableTreeNode) node.getParent();
+
+                if (parent == rootNode || dataTree.isExpanded(new TreePath(parent.getPath()))) {
+                    expandSubTree(node, expandLazy);
+                }
+            }
+        }
+    }
+
+    /**
+     * Build the detached tree from the given sorted granules
+     * @param granules sorted granules
+     * @param oiDataPerGranule OIData tables per granule
+     * @param fields granule fields (tree levels)
+     * @param showFile true to add file nodes
+     * @param showOITable true to add table nodes
+     * @return detached root node or null if interrupted
+     */
+    private static DefaultMutableTreeNode buildTree(final List<Granule> granules,
+                                                    final Map<Granule, Set<OIData>> oiDataPerGranule,
+                                                    final List<GranuleField> fields,
+                                                    final boolean showFile, final boolean showOITable) {
+
+        final DefaultMutableTreeNode rootNode = new DefaultMutableTreeNode("Granules");
+
+        // per-build index to avoid linear scans on children:
+        final TreeNodeIndex index = new TreeNodeIndex();
 
         // Add nodes and their data tables:
-        final List<GranuleField> fields = comparator.getSortDirectives();
         final int fieldsLen = fields.size();
 
         final DefaultMutableTreeNode[] pathNodes = new DefaultMutableTreeNode[fieldsLen + 1];
@@ -262,6 +386,10 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
         pathNodes[0] = rootNode;
 
         for (Granule granule : granules) {
+            // fast interrupt (build cancelled):
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
 
             // loop on fields:
             for (level = 1; level <= fieldsLen; level++) {
@@ -293,11 +421,16 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
 
                 // insert original granule value if we are on the deepest level (no file and no table)
                 // or use a proxy object enriched by material that need to be used by tooltip (and probably more in the future)
-                if (level < fieldsLen || showFile || showOITable) {
-                    pathNodes[level] = dataTree.addNode(pathNodes[level - 1], value);
+                if (level < fieldsLen) {
+                    pathNodes[level] = addNode(index, pathNodes[level - 1], value);
+                } else if (showFile || showOITable) {
+                    // file and table nodes are created when this node is expanded:
+                    final LazyGranuleNode lazyNode = new LazyGranuleNode(value, oiDataPerGranule, showFile, showOITable);
+                    pathNodes[level - 1].add(lazyNode);
+                    pathNodes[level] = index.add(lazyNode);
                 } else {
                     final StatisticatedObject sobject = new StatisticatedObject(value);
-                    pathNodes[level] = dataTree.addNode(pathNodes[level - 1], sobject);
+                    pathNodes[level] = addNode(index, pathNodes[level - 1], sobject);
                     // reference on table will be appent below
                     // we could add more information comming from current granule
                 }
@@ -305,81 +438,254 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
 
             final DefaultMutableTreeNode parent = pathNodes[level - 1];
 
-            // if parent store a proxy object, add reference on granule
-            if (parent.getUserObject() instanceof StatisticatedObject) {
-                ((StatisticatedObject) parent.getUserObject()).addGranule(granule);
-            }
-
-            // Leaf:
-            final Set<OIData> oiDatas = oiDataPerGranule.get(granule);
-            if (oiDatas != null) {
-                if (showFile) {
-                    // insert node per OIFits File:
-                    final List<OIData> sortedByFile = new ArrayList<OIData>(oiDatas);
-                    Collections.sort(sortedByFile, OITableByFileComparator.INSTANCE);
-
-                    DefaultMutableTreeNode current = parent;
-
-                    String fileName, prev = null;
-
-                    // for now per OIData:
-                    for (OITable table : sortedByFile) {
-                        fileName = OITableByFileComparator.getFileName(table);
-
-                        if (!fileName.equals(prev)) {
-                            prev = fileName;
-                            // Avoid File duplicates :
-                            if (showOITable) {
-                                current = GenericJTree.findTreeNode(parent, fileName);
-                                if (current == null) {
-                                    current = dataTree.addNode(parent, fileName);
-                                }
-                            } else {
-                                StatisticatedObject sobject = new StatisticatedObject(fileName);
-                                current = GenericJTree.findTreeNode(parent, sobject);
-                                if (current == null) {
-                                    current = dataTree.addNode(parent, sobject);
-                                } else {
-                                    sobject = (StatisticatedObject) current.getUserObject();
-                                }
-                                sobject.addGranule(granule);
-                            }
+            if (parent instanceof LazyGranuleNode) {
+                // Leaf (lazy):
+                ((LazyGranuleNode) parent).addGranule(granule);
+            } else {
+                // parent store a proxy object, add reference on granule
+                final StatisticatedObject sobject = (StatisticatedObject) parent.getUserObject();
+                sobject.addGranule(granule);
+
+                // Leaf: add reference on table + other stat info into userObject of parent
+                final Set<OIData> oiDatas = oiDataPerGranule.get(granule);
+                if (oiDatas != null) {
+                    for (OITable table : oiDatas) {
+                        sobject.addOITable(table);
+                    }
+                }
+            }
+        }
+        return rootNode;
+    }
+
+    /**
+     * Add file and/or table nodes of the given granule to the given parent node
+     * @param index node index
+     * @param parent parent node
+     * @param granule granule to process
+     * @param oiDatas OIData tables of the granule
+     * @param showFile true to add file nodes
+     * @param showOITable true to add table nodes
+     */
+    private static void addLeaves(final TreeNodeIndex index, final DefaultMutableTreeNode parent, final Granule granule,
+                                  final Set<OIData> oiDatas, final boolean showFile, final boolean showOITable) {
+        if (showFile) {
+            // insert node per OIFits File:
+            final List<OIData> sortedByFile = new ArrayList<OIData>(oiDatas);
+            Collections.sort(sortedByFile, OITableByFileComparator.INSTANCE);
+
+            DefaultMutableTreeNode current = parent;
+
+            String fileName, prev = null;
+
+            // for now per OIData:
+            for (OITable table : sortedByFile) {
+                fileName = OITableByFileComparator.getFileName(table);
+
+                if (!fileName.equals(prev)) {
+                    prev = fileName;
+                    // Avoid File duplicates :
+                    if (showOITable) {
+                        current = index.findChild(parent, fileName);
+                        if (current == null) {
+                            current = addNode(index, parent, fileName);
                         }
-                        if (showOITable) {
-                            // Avoid Table duplicates :
-                            if (GenericJTree.findTreeNode(parent, table) == null) {
-                                dataTree.addNode(current, table);
-                            }
+                    } else {
+                        StatisticatedObject sobject = new StatisticatedObject(fileName);
+                        current = index.findChild(parent, sobject);
+                        if (current == null) {
+                            current = addNode(index, parent, sobject);
                         } else {
-                            //add reference on table + other stat info into userObject of current
-                            StatisticatedObject sobject = (StatisticatedObject) current.getUserObject();
-                            sobject.addOITable(table);
+                            sobject = (StatisticatedObject) current.getUserObject();
                         }
+                        sobject.addGranule(granule);
                     }
-                } else if (showOITable) {
-                    // for now per OIData:
-                    for (OITable table : oiDatas) {
-                        // Avoid Table duplicates :
-                        if (GenericJTree.findTreeNode(parent, table) == null) {
-                            dataTree.addNode(parent, table);
-                        }
+                }
+                if (showOITable) {
+                    // Avoid Table duplicates (in the file node) :
+                    if (index.findChild(current, table) == null) {
+                        addNode(index, current, table);
                     }
                 } else {
-                    // add reference on table + other stat info into userObject of parent
-                    StatisticatedObject sobject = (StatisticatedObject) parent.getUserObject();
-                    for (OITable table : oiDatas) {
-                        sobject.addOITable(table);
+                    //add reference on table + other stat info into userObject of current
+                    StatisticatedObject sobject = (StatisticatedObject) current.getUserObject();
+                    sobject.addOITable(table);
+                }
+            }
+        } else if (showOITable) {
+            // for now per OIData:
+            for (OITable table : oiDatas) {
+                // Avoid Table duplicates :
+                if (index.findChild(parent, table) == null) {
+                    addNode(index, parent, table);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a new node, add it to the given parent node (detached tree) and index it
+     * @param index node index
+     * @param parent parent node
+     * @param userObject user object
+     * @return new node
+     */
+    private static DefaultMutableTreeNode addNode(final TreeNodeIndex index,
+                                                  final DefaultMutableTreeNode parent, final Object userObject) {
+        final DefaultMutableTreeNode node = new DefaultMutableTreeNode(userObject);
+        parent.add(node);
+        return index.add(node);
+    }
+
+    /**
+     * Merge children of the built node into the displayed node:
+     * remove obsolete nodes, insert new nodes and keep (and merge recursively) existing nodes
+     * so the tree model fires only fine-grained events and expansion state is preserved
+     * Note: siblings having the same key are matched in order
+     * @param treeModel displayed tree model
+     * @param node displayed node
+     * @param built built node (detached)
+     * @param insertedNodes list of inserted nodes (output)
+     */
+    private void mergeChildren(final DefaultTreeModel treeModel,
+                               final DefaultMutableTreeNode node, final DefaultMutableTreeNode built,
+                               final List<DefaultMutableTreeNode> insertedNodes) {
+
+        final int builtLen = built.getChildCount();
+
+        // copy built children as insertion detaches them from the built node:
+        final DefaultMutableTreeNode[] builtChildren = new DefaultMutableTreeNode[builtLen];
+        final Set<Object> builtKeys = new HashSet<Object>(2 * builtLen);
+
+        for (int i = 0; i < builtLen; i++) {
+            builtChildren[i] = (DefaultMutableTreeNode) built.getChildAt(i);
+            builtKeys.add(getNodeKey(builtChildren[i]));
+        }
+
+        // remove obsolete children and index remaining ones (in order):
+        final Map<Object, List<DefaultMutableTreeNode>> existingNodes
+                                                        = new HashMap<Object, List<DefaultMutableTreeNode>>(2 * node.getChildCount());
+
+        for (int i = node.getChildCount() - 1; i >= 0; i--) {
+            final DefaultMutableTreeNode child = (DefaultMutableTreeNode) node.getChildAt(i);
+            final Object key = getNodeKey(child);
+
+            if (builtKeys.contains(key)) {
+                List<DefaultMutableTreeNode> sameKeyNodes = existingNodes.get(key);
+                if (sameKeyNodes == null) {
+                    sameKeyNodes = new ArrayList<DefaultMutableTreeNode>(1);
+                    existingNodes.put(key, sameKeyNodes);
+                }
+                sameKeyNodes.add(0, child);
+            } else {
+                treeModel.removeNodeFromParent(child);
+            }
+        }
+
+        // insert new children or merge existing ones in the built order:
+        for (int i = 0; i < builtLen; i++) {
+            final DefaultMutableTreeNode builtChild = builtChildren[i];
+            final List<DefaultMutableTreeNode> sameKeyNodes = existingNodes.get(getNodeKey(builtChild));
+            final DefaultMutableTreeNode child = (sameKeyNodes == null || sameKeyNodes.isEmpty()) ? null : sameKeyNodes.remove(0);
+
+            if (child == null || child.getClass() != builtChild.getClass()) {
+                if (child != null) {
+                    // node kind changed (lazy or not):
+                    treeModel.removeNodeFromParent(child);
+                }
+                treeModel.insertNodeInto(builtChild, node, i);
+                insertedNodes.add(builtChild);
+            } else {
+                List<TreePath> expandedPaths = null;
+
+                if (node.getChildAt(i) != child) {
+                    // order changed: move the same node and restore its expansion state
+                    final Enumeration<TreePath> expanded = dataTree.getExpandedDescendants(new TreePath(child.getPath()));
+                    if (expanded != null) {
+                        expandedPaths = Collections.list(expanded);
+                    }
+                    treeModel.removeNodeFromParent(child);
+                    treeModel.insertNodeInto(child, node, i);
+                }
+                // update user object (new instances or statistics):
+                if (child.getUserObject() != builtChild.getUserObject()) {
+                    child.setUserObject(builtChild.getUserObject());
+                    treeModel.nodeChanged(child);
+                }
+                boolean merge = true;
+
+                if (child instanceof LazyGranuleNode) {
+                    final LazyGranuleNode lazyChild = (LazyGranuleNode) child;
+                    final LazyGranuleNode builtLazy = (LazyGranuleNode) builtChild;
+
+                    lazyChild.setGranules(builtLazy);
+                    if (lazyChild.isLoaded()) {
+                        builtLazy.load();
+                    } else {
+                        // children will be created when expanded:
+                        merge = false;
+                    }
+                }
+                if (merge) {
+                    mergeChildren(treeModel, child, builtChild, insertedNodes);
+                }
+                if (expandedPaths != null) {
+                    for (TreePath path : expandedPaths) {
+                        // skip nodes removed by the merge:
+                        if (((DefaultMutableTreeNode) path.getLastPathComponent()).isNodeAncestor(child)) {
+                            dataTree.expandPath(path);
+                        }
                     }
                 }
             }
         }
 
-        jLabelStats.setText(granules.size() + " granules, " + oiFitsCollection.size() + " oifits");
+        // remove remaining children having a duplicated key:
+        for (List<DefaultMutableTreeNode> sameKeyNodes : existingNodes.values()) {
+            for (DefaultMutableTreeNode child : sameKeyNodes) {
+                treeModel.removeNodeFromParent(child);
+            }
+        }
+    }
 
-        // fire node structure changed :
-        dataTree.fireNodeChanged(rootNode);
+    /**
+     * Return the key identifying the given node among its siblings
+     * @param node tree node
+     * @return main object if the user object is a StatisticatedObject or the user object
+     */
+    private static Object getNodeKey(final DefaultMutableTreeNode node) {
+        final Object userObject = node.getUserObject();
+        if (userObject instanceof StatisticatedObject) {
+            return ((StatisticatedObject) userObject).getMainObject();
+        }
+        return userObject;
+    }
 
-        expandOrCollapseTree();
+    /**
+     * Expand the given node and all its descendants
+     * @param node node to expand
+     * @param expandLazy true to expand (and load) lazy nodes; false to keep them collapsed
+     */
+    private void expandSubTree(final DefaultMutableTreeNode node, final boolean expandLazy) {
+        if (node.isLeaf()) {
+            return;
+        }
+        if (!expandLazy && (node instanceof LazyGranuleNode) && !((LazyGranuleNode) node).isLoaded()) {
+            return;
+        }
+        // note: lazy node children are created by treeWillExpand:
+        dataTree.expandPath(new TreePath(node.getPath()));
+
+        for (int i = 0, len = node.getChildCount(); i < len; i++) {
+            expandSubTree((DefaultMutableTreeNode) node.getChildAt(i), expandLazy);
+        }
+    }
+
+    /**
+     * @return true if the number of tables is small enough to expand all file and table nodes
+     */
+    private boolean isExpandLazy() {
+        return nbTables <= EXPAND_ALL_MAX_TABLES;
     }
 
     private void expandOrCollapseTree() {
@@ -387,7 +693,12 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
                 jToggleButtonExpandTree.isSelected(), jToggleButtonCollapseTree.isSelected());
 
         if (jToggleButtonExpandTree.isSelected()) {
-            dataTree.expandAll(true);
+            final DefaultMutableTreeNode rootNode = dataTree.getRootNode();
+            final boolean expandLazy = isExpandLazy();
+
+            for (int i = 0, len = rootNode.getChildCount(); i < len; i++) {
+                expandSubTree((DefaultMutableTreeNode) rootNode.getChildAt(i), expandLazy);
+            }
         } else if (jToggleButtonCollapseTree.isSelected()) {
             dataTree.expandAll(false);
         }
@@ -589,6 +900,7 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
 
         switch (event.getType()) {
             case COLLECTION_CHANGED:
+                tooltipCache.clear();
                 updateOIFitsCollection(event.getOIFitsCollection());
                 break;
             default:
@@ -627,6 +939,20 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
         return (table != null) ? table.toString() : "UNDEFINED";
     }
 
+    /**
+     * Return the tooltip of the given user object (cached until the collection or the tree changes)
+     * @param userObject user object of the tree node
+     * @return tooltip or null
+     */
+    private String getCachedTooltipText(final Object userObject) {
+        String tooltip = tooltipCache.get(userObject);
+        if (tooltip == null && !tooltipCache.containsKey(userObject)) {
+            tooltip = getTreeTooltipText(userObject, new StringBuilder(256), false);
+            tooltipCache.put(userObject, tooltip);
+        }
+        return tooltip;
+    }
+
     /**
      * return the String for a given object comming from the tree.
      * @param value
@@ -740,6 +1066,156 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
         return sb.toString();
     }
 
+    /**
+     * Build the granule tree in background and merge it into the displayed tree using EDT
+     * Note: runs on the SwingWorker threads (not the shared task executor blocked by long loading tasks)
+     */
+    private static final class BuildTreeWorker extends SwingWorker<DefaultMutableTreeNode, Void> {
+
+        /* members */
+        /** granule tree panel to refresh */
+        private final GranuleTreePanel panel;
+        /** collection snapshot */
+        private final GranuleSnapshot snapshot;
+        /** granule comparator */
+        private final GranuleComparator comparator;
+        /** true to add file nodes */
+        private final boolean showFile;
+        /** true to add table nodes */
+        private final boolean showOITable;
+
+        /**
+         * Hidden constructor
+         * @param panel granule tree panel to refresh
+         * @param snapshot collection snapshot
+         * @param comparator granule comparator
+         * @param showFile true to add file nodes
+         * @param showOITable true to add table nodes
+         */
+        BuildTreeWorker(final GranuleTreePanel panel, final GranuleSnapshot snapshot, final GranuleComparator comparator,
+                        final boolean showFile, final boolean showOITable) {
+            this.panel = panel;
+            this.snapshot = snapshot;
+            this.comparator = comparator;
+            this.showFile = showFile;
+            this.showOITable = showOITable;
+        }
+
+        /**
+         * Sort granules and build the detached tree
+         * This code is executed by a Worker thread (Not Swing EDT)
+         * @return built root node or null if cancelled
+         */
+        @Override
+        protected DefaultMutableTreeNode doInBackground() {
+            final List<Granule> granules = snapshot.getSortedGranules(comparator);
+            logger.debug("granules sorted: {}", granules);
+
+            return buildTree(granules, snapshot.getOiDataPerGranule(), comparator.getSortDirectives(), showFile, showOITable);
+        }
+
+        /**
+         * Merge the built tree into the displayed tree unless this build was cancelled or superseded
+         * This code is executed by the Swing Event Dispatcher thread (EDT)
+         */
+        @Override
+        protected void done() {
+            if (isCancelled() || panel.currentBuild != this) {
+                return;
+            }
+            panel.currentBuild = null;
+            try {
+                final DefaultMutableTreeNode builtRoot = get();
+                if (builtRoot != null) {
+                    panel.updateTree(builtRoot, snapshot);
+                }
+            } catch (InterruptedException ie) {
+                logger.debug("tree build interrupted", ie);
+            } catch (ExecutionException ee) {
+                logger.error("tree build failure", ee.getCause());
+            }
+        }
+    }
+
+    /**
+     * Tree node of the deepest granule level whose file and table nodes are only created when expanded
+     */
+    private static final class LazyGranuleNode extends DefaultMutableTreeNode {
+
+        /** default serial UID for Serializable interface */
+        private static final long serialVersionUID = 1;
+
+        /* members */
+        /** granules of this node */
+        private List<Granule> granules = new ArrayList<Granule>(2);
+        /** OIData tables per granule (shared) */
+        private Map<Granule, Set<OIData>> oiDataPerGranule;
+        /** true to add file nodes */
+        private final boolean showFile;
+        /** true to add table nodes */
+        private final boolean showOITable;
+        /** true if children are created */
+        private boolean loaded = false;
+
+        /**
+         * Hidden constructor
+         * @param userObject granule field value
+         * @param oiDataPerGranule OIData tables per granule (shared)
+         * @param showFile true to add file nodes
+         * @param showOITable true to add table nodes
+         */
+        LazyGranuleNode(final Object userObject, final Map<Granule, Set<OIData>> oiDataPerGranule,
+                        final boolean showFile, final boolean showOITable) {
+            super(userObject);
+            this.oiDataPerGranule = oiDataPerGranule;
+            this.showFile = showFile;
+            this.showOITable = showOITable;
+        }
+
+        void addGranule(final Granule granule) {
+            granules.add(granule);
+        }
+
+        /**
+         * Use the granules of the given (built) node
+         * @param other built node
+         */
+        void setGranules(final LazyGranuleNode other) {
+            this.granules = other.granules;
+            this.oiDataPerGranule = other.oiDataPerGranule;
+        }
+
+        boolean isLoaded() {
+            return loaded;
+        }
+
+        /**
+         * Create file and table nodes (once)
+         */
+        void load() {
+            if (!loaded) {
+                loaded = true;
+
+                final TreeNodeIndex index = new TreeNodeIndex();
+
+                for (Granule granule : granules) {
+                    final Set<OIData> oiDatas = oiDataPerGranule.get(granule);
+                    if (oiDatas != null) {
+                        addLeaves(index, this, granule, oiDatas, showFile, showOITable);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return false until children are created, so the node can be expanded
+         */
+        @Override
+        public boolean isLeaf() {
+            return loaded && super.isLeaf();
+        }
+    }
+
     private static final class StatisticatedObject {
 
         private final Object mainObject;
@@ -777,26 +1253,10 @@ public final class GranuleTreePanel extends javax.swing.JPanel implements OIFits
             }
             return this.mainObject.equals(o);
         }
-    }
-
-    private class TooltipTreeCellRenderer extends DefaultTreeCellRenderer {
-
-        private static final long serialVersionUID = 1L;
 
         @Override
-        public Component getTreeCellRendererComponent(JTree tree, Object value,
-                                                      boolean sel, boolean expanded, boolean leaf, int row,
-                                                      boolean hasFocus) {
-
-            if (value != null) {
-                final Object userObject;
-                if (value instanceof DefaultMutableTreeNode) {
-                    userObject = ((DefaultMutableTreeNode) value).getUserObject();
-                    setToolTipText(getTreeTooltipText(userObject, tmpBuf, false));
-                }
-            }
-            return super.getTreeCellRendererComponent(tree, value, sel,
-                    expanded, leaf, row, hasFocus);
+        public int hashCode() {
+            return this.mainObject.hashCode();
         }
     }
 }
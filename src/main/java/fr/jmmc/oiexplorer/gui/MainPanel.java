@@ -185,6 +185,46 @@ public final class MainPanel extends javax.swing.JPanel implements OIFitsCollect
 
     }
 
+    /** Document exportable giving already prepared pages (shared between several sequential exports) */
+    private static final class PreparedDocument implements DocumentExportable {
+
+        /* members */
+        /** prepared pages (read-only) */
+        private final List<DocumentPage> pages;
+
+        PreparedDocument(final List<DocumentPage> pages) {
+            this.pages = pages;
+        }
+
+        @Override
+        public void performAction(final ExportDocumentAction action) {
+            action.process(this);
+        }
+
+        @Override
+        public String getDefaultFileName(final String fileExtension) {
+            return "AllPlots." + fileExtension;
+        }
+
+        @Override
+        public void prepareExport(final DocumentOptions options) {
+            // same layout as MainPanel.preparePages():
+            options.setDocumentSize(DocumentSize.NORMAL)
+                    .setOrientation(Orientation.Landscape)
+                    .setNumberOfPages(pages.size());
+        }
+
+        @Override
+        public Drawable[] preparePage(final int pageIndex) {
+            return pages.get(pageIndex - 1).getDrawables();
+        }
+
+        @Override
+        public void postExport() {
+            // pages are kept for other exports
+        }
+    }
+
     /**
      * Prepare the page layout before doing the export:
      * Performs layout and modifies the given options
@@ -192,9 +232,28 @@ public final class MainPanel extends javax.swing.JPanel implements OIFitsCollect
      */
     @Override
     public void prepareExport(final DocumentOptions options) {
+        this.pages = preparePages(options);
+    }
+
+    /**
+     * Prepare the page layout once to export the same pages into several documents (one after the other):
+     * Performs layout and modifies the given options
+     * @param options document options used to prepare the document
+     * @return document exportable giving the prepared pages (immutable)
+     */
+    public DocumentExportable prepareDocument(final DocumentOptions options) {
+        return new PreparedDocument(preparePages(options));
+    }
+
+    /**
+     * Performs the page layout and modifies the given options
+     * @param options document options used to prepare the document
+     * @return prepared pages
+     */
+    private List<DocumentPage> preparePages(final DocumentOptions options) {
 
         // allocate pages:
-        this.pages = new ArrayList<DocumentPage>();
+        final List<DocumentPage> preparedPages = new ArrayList<DocumentPage>();
 
         int numberOfPages = 0;
 
@@ -213,14 +272,14 @@ public final class MainPanel extends javax.swing.JPanel implements OIFitsCollect
                         numberOfPages++;
 
                         // warning: use pageIndex = 1 (unused) but may change in future !
-                        this.pages.add(new DocumentPage(plotChartPanel.preparePage(1)));
+                        preparedPages.add(new DocumentPage(plotChartPanel.preparePage(1)));
                     }
                 } else if (com instanceof GlobalView) {
                     final GlobalView view = (GlobalView) com;
                     numberOfPages++;
 
                     // warning: use pageIndex = 1 (unused) but may change in future !
-                    this.pages.add(new DocumentPage(view.preparePage(1)));
+                    preparedPages.add(new DocumentPage(view.preparePage(1)));
                 }
             }
         } else if (DocumentMode.DEFAULT == options.getMode()) {
@@ -235,7 +294,7 @@ public final class MainPanel extends javax.swing.JPanel implements OIFitsCollect
                         numberOfPages++;
 
                         // warning: use pageIndex = 1 (unused) but may change in future !
-                        this.pages.add(new DocumentPage(plotChartPanel.preparePage(1)));
+                        preparedPages.add(new DocumentPage(plotChartPanel.preparePage(1)));
                     }
                 }
             }
@@ -258,7 +317,7 @@ public final class MainPanel extends javax.swing.JPanel implements OIFitsCollect
             }
 
             // put all charts in one page:
-            this.pages.add(new DocumentPage(chartList.toArray(new Drawable[chartList.size()])));
+            preparedPages.add(new DocumentPage(chartList.toArray(new Drawable[chartList.size()])));
 
         } else {
             logger.info("unsupported DocumentMode: {}", options.getMode());
@@ -267,6 +326,8 @@ public final class MainPanel extends javax.swing.JPanel implements OIFitsCollect
         options.setDocumentSize(DocumentSize.NORMAL)
                 .setOrientation(Orientation.Landscape)
                 .setNumberOfPages(numberOfPages);
+
+        return preparedPages;
     }
 
     /**
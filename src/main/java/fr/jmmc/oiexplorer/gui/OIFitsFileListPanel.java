@@ -21,7 +21,10 @@ import fr.jmmc.oitools.model.OIFitsCollection;
 import fr.jmmc.oitools.model.OIFitsFile;
 import java.awt.Component;
 import java.awt.event.MouseEvent;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import javax.swing.DefaultListCellRenderer;
 import javax.swing.JList;
 import javax.swing.ListModel;
@@ -45,6 +48,8 @@ public final class OIFitsFileListPanel extends javax.swing.JPanel implements OIF
     private final static OIFitsCollectionManager ocm = OIFitsCollectionManager.getInstance();
     /** subset identifier */
     private String subsetId = null;
+    /** true if an update is pending (events of the same batch are coalesced) */
+    private boolean updatePending = false;
 
     /** Creates new form OIFitsFileListPanel */
     public OIFitsFileListPanel() {
@@ -179,23 +184,27 @@ public final class OIFitsFileListPanel extends javax.swing.JPanel implements OIF
         }
 
         // select element present in both lists
-        final List<OIFitsFile> oiFitsOfSubset = subset.getSelectorResult().getSortedOIFitsFiles();
+        final Set<OIFitsFile> oiFitsOfSubset = Collections.newSetFromMap(new IdentityHashMap<OIFitsFile, Boolean>());
+        oiFitsOfSubset.addAll(subset.getSelectorResult().getSortedOIFitsFiles());
         oifitsFileList.clearSelection();
 
         final ListSelectionModel sm = oifitsFileList.getSelectionModel();
         final int size = lm.size();
 
         int found = -1;
-        for (int i = 0; i < size; i++) {
-            for (OIFitsFile oiFitsFile : oiFitsOfSubset) {
-                if (oiFitsFile == lm.getElementAt(i)) {
+        // single selection event:
+        sm.setValueIsAdjusting(true);
+        try {
+            for (int i = 0; i < size; i++) {
+                if (oiFitsOfSubset.contains(lm.getElementAt(i))) {
                     sm.addSelectionInterval(i, i);
                     if (found == -1) {
                         found = i;
                     }
-                    break;
                 }
             }
+        } finally {
+            sm.setValueIsAdjusting(false);
         }
 
         final int lastIndex = size;
@@ -224,11 +233,28 @@ public final class OIFitsFileListPanel extends javax.swing.JPanel implements OIF
             final SubsetDefinition subset = activePlot.getSubsetDefinition();
             if (subset != null) {
                 setSubsetId(subset.getId());
-                updateOIFitsList(ocm.getOIFitsCollection());
+                scheduleUpdateOIFitsList();
             }
         }
     }
 
+    /**
+     * Update the file list once all pending events are processed (single update after a batch of events)
+     */
+    private void scheduleUpdateOIFitsList() {
+        if (!updatePending) {
+            updatePending = true;
+
+            SwingUtils.invokeLaterEDT(new Runnable() {
+                @Override
+                public void run() {
+                    updatePending = false;
+                    updateOIFitsList(ocm.getOIFitsCollection());
+                }
+            });
+        }
+    }
+
     /**
      * Define the subset identifier
      * @param subsetId subset identifier
@@ -315,7 +341,7 @@ public final class OIFitsFileListPanel extends javax.swing.JPanel implements OIF
 
         switch (event.getType()) {
             case COLLECTION_CHANGED:
-                updateOIFitsList(event.getOIFitsCollection());
+                scheduleUpdateOIFitsList();
                 break;
             /* TODO make it work
              * case SUBSET_CHANGED:
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.gui;
+
+import fr.jmmc.oitools.model.OITable;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.swing.tree.DefaultMutableTreeNode;
+
+/**
+ * Index of tree nodes built while generating a tree:
+ * child node per (parent node, user object) and table node per (parent node, file path, extNb)
+ * to replace linear scans (GenericJTree.findTreeNode) by hash lookups.
+ *
+ * Note: a new index is filled with each built tree
+ *
+ * @author bourgesl
+ */
+final class TreeNodeIndex {
+
+    /* members */
+    /** child node per user object per parent node */
+    private final Map<DefaultMutableTreeNode, Map<Object, DefaultMutableTreeNode>> childrenByParent
+            = new IdentityHashMap<DefaultMutableTreeNode, Map<Object, DefaultMutableTreeNode>>();
+    /** table node per table key per parent node */
+    private final Map<DefaultMutableTreeNode, Map<String, DefaultMutableTreeNode>> tablesByParent
+            = new IdentityHashMap<DefaultMutableTreeNode, Map<String, DefaultMutableTreeNode>>();
+
+    /**
+     * Package-private constructor
+     */
+    TreeNodeIndex() {
+        super();
+    }
+
+    /**
+     * Add the given node (already attached to its parent) into this index
+     * @param node node to index
+     * @return given node
+     */
+    DefaultMutableTreeNode add(final DefaultMutableTreeNode node) {
+        final DefaultMutableTreeNode parent = (DefaultMutableTreeNode) node.getParent();
+        final Object userObject = node.getUserObject();
+
+        Map<Object, DefaultMutableTreeNode> children = childrenByParent.get(parent);
+        if (children == null) {
+            children = new HashMap<Object, DefaultMutableTreeNode>(8);
+            childrenByParent.put(parent, children);
+        }
+        children.put(userObject, node);
+
+        if (userObject instanceof OITable) {
+            final OITable table = (OITable) userObject;
+
+            Map<String, DefaultMutableTreeNode> tables = tablesByParent.get(parent);
+            if (tables == null) {
+                tables = new HashMap<String, DefaultMutableTreeNode>(8);
+                tablesByParent.put(parent, tables);
+            }
+            tables.put(getTableKey(table.getOIFitsFile().getAbsoluteFilePath(), table.getExtNb()), node);
+        }
+        return node;
+    }
+
+    /**
+     * Move the index entries of the given old parent node to the new parent node
+     * (children moved from a detached root node to the displayed root node)
+     * @param oldParent old parent node
+     * @param newParent new parent node
+     */
+    void replaceParent(final DefaultMutableTreeNode oldParent, final DefaultMutableTreeNode newParent) {
+        final Map<Object, DefaultMutableTreeNode> children = childrenByParent.remove(oldParent);
+        if (children != null) {
+            childrenByParent.put(newParent, children);
+        }
+        final Map<String, DefaultMutableTreeNode> tables = tablesByParent.remove(oldParent);
+        if (tables != null) {
+            tablesByParent.put(newParent, tables);
+        }
+    }
+
+    /**
+     * Return the child node of the given parent node having the given user object
+     * @param parent parent node
+     * @param userObject user object to look for
+     * @return child node or null if not found
+     */
+    DefaultMutableTreeNode findChild(final DefaultMutableTreeNode parent, final Object userObject) {
+        final Map<Object, DefaultMutableTreeNode> children = childrenByParent.get(parent);
+        return (children != null) ? children.get(userObject) : null;
+    }
+
+    /**
+     * Return the table node of the given parent node corresponding to the given table
+     * @param parent parent node
+     * @param filePath absolute file path of the OIFits file
+     * @param extNb extension number of the table
+     * @return table node or null if not found
+     */
+    DefaultMutableTreeNode findTable(final DefaultMutableTreeNode parent, final String filePath, final int extNb) {
+        final Map<String, DefaultMutableTreeNode> tables = tablesByParent.get(parent);
+        return (tables != null) ? tables.get(getTableKey(filePath, extNb)) : null;
+    }
+
+    /**
+     * Return the table key
+     * @param filePath absolute file path of the OIFits file
+     * @param extNb extension number of the table
+     * @return filePath#extNb
+     */
+    private static String getTableKey(final String filePath, final int extNb) {
+        return filePath + '#' + extNb;
+    }
+}
@@ -102,7 +102,30 @@ public final class LoadOIDataCollectionAction extends RegisteredAction {
         }
     }
 
-    public static void loadOIFitsCollectionFromFile(File file, final OIFitsCollectionManager ocm, final boolean appendOIFitsFilesOnly) throws XmlBindException {
+    /**
+     * Load the given OIFits Collection file asynchronously (progress shown in the status bar)
+     * @param file OIFits Collection file to load
+     * @param ocm OIFitsCollectionManager instance
+     * @param appendOIFitsFilesOnly true to only append the OIFits files listed in the collection
+     * @return true if the loading task was started; false if the collection could not be loaded
+     * @throws XmlBindException if a JAXB exception occurred
+     */
+    public static boolean loadOIFitsCollectionFromFile(File file, final OIFitsCollectionManager ocm, final boolean appendOIFitsFilesOnly) throws XmlBindException {
+        return loadOIFitsCollectionFromFile(file, ocm, appendOIFitsFilesOnly, null);
+    }
+
+    /**
+     * Load the given OIFits Collection file asynchronously (progress shown in the status bar)
+     * @param file OIFits Collection file to load
+     * @param ocm OIFitsCollectionManager instance
+     * @param appendOIFitsFilesOnly true to only append the OIFits files listed in the collection
+     * @param readyListener optional listener notified (done called by EDT) once the collection is loaded
+     * or the loading is cancelled, in charge of firing the READY event (null means firing the READY event immediately)
+     * @return true if the loading task was started; false if the collection could not be loaded
+     * @throws XmlBindException if a JAXB exception occurred
+     */
+    public static boolean loadOIFitsCollectionFromFile(File file, final OIFitsCollectionManager ocm, final boolean appendOIFitsFilesOnly,
+                                                       final LoadOIFitsListener readyListener) throws XmlBindException {
         final String fileLocation = file.getAbsolutePath();
         if (appendOIFitsFilesOnly) {
             StatusBar.show("loading OIFits files from OIFits Collection: " + fileLocation);
@@ -138,8 +161,12 @@ public final class LoadOIDataCollectionAction extends RegisteredAction {
                         OIFitsCheckerPanel.displayReport(checker, Preferences.getInstance());
                     }
 
-                    // Fire the Ready event to any listener:
-                    ocm.fireReady(this, null);
+                    if (readyListener != null) {
+                        readyListener.done(cancelled);
+                    } else {
+                        // Fire the Ready event to any listener:
+                        ocm.fireReady(this, null);
+                    }
                 }
             }, appendOIFitsFilesOnly);
 
@@ -155,5 +182,6 @@ public final class LoadOIDataCollectionAction extends RegisteredAction {
                 MessagePane.showErrorMessage("Could not load OIFits Collection: " + fileLocation, e);
             }
         }
+        return (e == null);
     }
 }
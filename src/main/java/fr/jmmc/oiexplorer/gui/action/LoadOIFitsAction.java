@@ -10,6 +10,7 @@ import fr.jmmc.jmcs.gui.component.FileChooser;
 import fr.jmmc.jmcs.gui.component.MessagePane;
 import fr.jmmc.jmcs.data.MimeType;
 import fr.jmmc.jmcs.gui.component.StatusBar;
+import fr.jmmc.jmcs.gui.util.SwingUtils;
 import fr.jmmc.oiexplorer.OIFitsExplorer;
 import fr.jmmc.oiexplorer.Preferences;
 import fr.jmmc.oiexplorer.core.gui.OIFitsCheckerPanel;
@@ -20,6 +21,11 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import javax.swing.JPanel;
 import javax.swing.JProgressBar;
 import org.slf4j.Logger;
@@ -41,6 +47,14 @@ public final class LoadOIFitsAction extends RegisteredAction {
     private static final Logger logger = LoggerFactory.getLogger(className);
     /** OIFits MimeType */
     private final static MimeType mimeType = MimeType.OIFITS;
+    /** maximum number of files listed in the progress tooltip */
+    private final static int MAX_TOOLTIP_FILES = 30;
+    /** file locations (local paths or remote URLs) queued for the next batch (SAMP) */
+    private final static List<String> queuedFiles = new ArrayList<String>();
+    /** true if the queued files are scheduled or waiting for the running task (guarded by queuedFiles) */
+    private static boolean queueScheduled = false;
+    /** true if a loading task is running (EDT) */
+    private static boolean loading = false;
 
     /**
      * Public constructor that automatically register the action in RegisteredAction.
@@ -77,35 +91,216 @@ public final class LoadOIFitsAction extends RegisteredAction {
 
         // If a file was defined (No cancel in the dialog)
         if (files != null) {
+            if (loading) {
+                // do not cancel the running task: load these files once it is done
+                for (File file : files) {
+                    queueOIFitsFile(file);
+                }
+            } else {
+                loadOIFitsFiles(getLocations(files), (files.length > 1));
+            }
+        }
+    }
+
+    /**
+     * Queue the given local OIFits file to be loaded in background:
+     * files queued while a loading task is scheduled or running are loaded together in the next batch
+     * Note: may be called by any thread (SAMP)
+     * @param file local OIFits file to load
+     */
+    public static void queueOIFitsFile(final File file) {
+        queueOIFitsFile(file.getAbsolutePath());
+    }
+
+    /**
+     * Queue the given remote OIFits file to be downloaded and loaded in background by the loading task (see queueOIFitsFile):
+     * the loaded file keeps its source URL
+     * Note: may be called by any thread (SAMP)
+     * @param uri remote OIFits file URI
+     */
+    public static void queueRemoteOIFitsFile(final URI uri) {
+        queueOIFitsFile(uri.toString());
+    }
+
+    /**
+     * Queue the given OIFits file to be loaded in background
+     * @param location file location (local path or remote URL)
+     */
+    private static void queueOIFitsFile(final String location) {
+        synchronized (queuedFiles) {
+            queuedFiles.add(location);
+
+            if (queueScheduled) {
+                return;
+            }
+            queueScheduled = true;
+        }
+        SwingUtils.invokeLaterEDT(new Runnable() {
+            @Override
+            public void run() {
+                loadQueuedOIFitsFiles();
+            }
+        });
+    }
+
+    /**
+     * Load all queued files in one batch unless a loading task is still running
+     * (the next batch is then started once it is done)
+     * Note: must be called by EDT
+     */
+    private static void loadQueuedOIFitsFiles() {
+        if (loading) {
+            // wait for the running task:
+            return;
+        }
+        final String[] locations;
+        synchronized (queuedFiles) {
+            locations = queuedFiles.toArray(new String[queuedFiles.size()]);
+            queuedFiles.clear();
+            queueScheduled = false;
+        }
+        if (locations.length != 0) {
+            loadOIFitsFiles(locations, true);
+        }
+    }
+
+    /**
+     * Discard the queued files (cancel button): the next batch only contains files queued afterwards
+     * Note: must be called by EDT
+     */
+    private static void cancelQueuedOIFitsFiles() {
+        synchronized (queuedFiles) {
+            queuedFiles.clear();
+            queueScheduled = false;
+        }
+    }
 
-            // Create progress panel:
-            final JProgressBar progressBar = new JProgressBar();
-            final JPanel progressPanel = createLoadOIFitsProgressPanel(progressBar);
+    /**
+     * @param files local files
+     * @return absolute paths of the given files
+     */
+    private static String[] getLocations(final File[] files) {
+        final String[] locations = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            locations[i] = files[i].getAbsolutePath();
+        }
+        return locations;
+    }
+
+    /**
+     * Load the given files in background, showing progress in the status bar
+     * Note: must be called by EDT when no loading task is running
+     * @param locations file locations to load (local paths or remote URLs with the ParallelOIFitsLoader only)
+     * @param parallel true to use the ParallelOIFitsLoader; false to use the OIFitsCollectionManager (local files)
+     */
+    private static void loadOIFitsFiles(final String[] locations, final boolean parallel) {
+        loading = true;
 
-            StatusBar.addCustomPanel(progressPanel);
+        // Create progress panel:
+        final JProgressBar progressBar = new JProgressBar();
+        final JPanel progressPanel = createLoadOIFitsProgressPanel(progressBar);
 
-            final OIFitsChecker checker = OIFitsChecker.newInstance();
+        StatusBar.addCustomPanel(progressPanel);
 
-            OIFitsCollectionManager.getInstance().loadOIFitsFiles(files, checker,
-                    new LoadOIFitsListener() {
+        final OIFitsChecker checker = OIFitsChecker.newInstance();
 
-                @Override
-                public void propertyChange(final PropertyChangeEvent pce) {
-                    if ("progress".equals(pce.getPropertyName())) {
-                        progressBar.setValue((Integer) pce.getNewValue());
+        final LoadOIFitsListener listener = new LoadOIFitsListener() {
+            /** state per file (EDT) */
+            private final Map<String, ParallelOIFitsLoader.FileState> fileStates
+                    = new LinkedHashMap<String, ParallelOIFitsLoader.FileState>();
+
+            @Override
+            public void propertyChange(final PropertyChangeEvent pce) {
+                if ("progress".equals(pce.getPropertyName())) {
+                    progressBar.setValue((Integer) pce.getNewValue());
+                } else if (ParallelOIFitsLoader.PROPERTY_FILE_STATE.equals(pce.getPropertyName())) {
+                    final ParallelOIFitsLoader.FileStatus status = (ParallelOIFitsLoader.FileStatus) pce.getNewValue();
+
+                    if (fileStates.isEmpty()) {
+                        for (String location : locations) {
+                            fileStates.put(location, ParallelOIFitsLoader.FileState.QUEUED);
+                        }
                     }
-                }
+                    fileStates.put(status.getLocation(), status.getState());
 
-                @Override
-                public void done(final boolean cancelled) {
-                    StatusBar.removeCustomPanel(progressPanel);
+                    updateLoadOIFitsProgress(progressBar, fileStates);
+                }
+            }
 
+            @Override
+            public void done(final boolean cancelled) {
+                loading = false;
+                StatusBar.removeCustomPanel(progressPanel);
+                try {
                     if (!cancelled) {
                         OIFitsCheckerPanel.displayReport(checker, Preferences.getInstance());
                     }
+                } finally {
+                    // load files queued meanwhile:
+                    loadQueuedOIFitsFiles();
                 }
-            });
+            }
+        };
+
+        try {
+            if (parallel) {
+                // parse files concurrently:
+                ParallelOIFitsLoader.loadOIFitsFiles(locations, checker, listener);
+            } else {
+                final File[] files = new File[locations.length];
+                for (int i = 0; i < locations.length; i++) {
+                    files[i] = new File(locations[i]);
+                }
+                OIFitsCollectionManager.getInstance().loadOIFitsFiles(files, checker, listener);
+            }
+        } catch (RuntimeException re) {
+            // task not started: do not block the queued files
+            loading = false;
+            StatusBar.removeCustomPanel(progressPanel);
+            throw re;
+        }
+    }
+
+    /**
+     * Update the progress bar text (files loaded / total) and its tooltip (state of each file)
+     * @param progressBar progress bar to update
+     * @param fileStates state per file
+     */
+    private static void updateLoadOIFitsProgress(final JProgressBar progressBar,
+                                                 final Map<String, ParallelOIFitsLoader.FileState> fileStates) {
+        int nDone = 0;
+        int nFailed = 0;
+
+        final StringBuilder sb = new StringBuilder(256);
+        sb.append("<html>");
+        int nLines = 0;
+
+        for (Map.Entry<String, ParallelOIFitsLoader.FileState> e : fileStates.entrySet()) {
+            final ParallelOIFitsLoader.FileState state = e.getValue();
+            switch (state) {
+                case DONE:
+                    nDone++;
+                    break;
+                case FAILED:
+                    nFailed++;
+                    break;
+                default:
+            }
+            if (nLines < MAX_TOOLTIP_FILES) {
+                if (nLines != 0) {
+                    sb.append("<br>");
+                }
+                sb.append(ParallelOIFitsLoader.getFileName(e.getKey())).append(": ").append(state);
+            }
+            nLines++;
         }
+        if (nLines > MAX_TOOLTIP_FILES) {
+            sb.append("<br>... ").append(nLines - MAX_TOOLTIP_FILES).append(" more files");
+        }
+        sb.append("</html>");
+
+        progressBar.setString(nDone + " / " + fileStates.size() + ((nFailed != 0) ? " (" + nFailed + " failed)" : ""));
+        progressBar.setToolTipText(sb.toString());
     }
 
     static JPanel createLoadOIFitsProgressPanel(final JProgressBar progressBar) {
@@ -114,7 +309,9 @@ public final class LoadOIFitsAction extends RegisteredAction {
 
             @Override
             public void actionPerformed(final ActionEvent e) {
+                cancelQueuedOIFitsFiles();
                 OIFitsCollectionManager.cancelTaskLoadOIFits();
+                ParallelOIFitsLoader.cancelTaskLoadOIFits();
             }
         });
     }
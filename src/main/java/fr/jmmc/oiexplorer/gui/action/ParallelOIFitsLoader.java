@@ -0,0 +1,518 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer.gui.action;
+
+import fr.jmmc.jmcs.gui.component.MessagePane;
+import fr.jmmc.jmcs.gui.task.Task;
+import fr.jmmc.jmcs.gui.task.TaskSwingWorker;
+import fr.jmmc.jmcs.gui.util.SwingUtils;
+import fr.jmmc.jmcs.util.concurrent.ParallelJobExecutor;
+import fr.jmmc.oiexplorer.core.model.LoadOIFitsListener;
+import fr.jmmc.oiexplorer.core.model.OIFitsCollectionManager;
+import fr.jmmc.oitools.model.OIFitsChecker;
+import fr.jmmc.oitools.model.OIFitsFile;
+import fr.jmmc.oitools.model.OIFitsLoader;
+import fr.nom.tam.fits.FitsException;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load many OIFits files concurrently (one job per file on the parallel job executor, bounded by the number of cores)
+ * then add them to the OIFits collection using EDT.
+ *
+ * Files are parsed and validated in parallel, each one with its own OIFitsChecker (not thread-safe);
+ * the file checkers are merged into the given checker (in the file order) once the loading is done.
+ *
+ * Remote files (SAMP URLs) are downloaded and read by their job (OIFits loader), so the download is part of the
+ * cancellable loading task and the loaded file keeps its source URL.
+ *
+ * Files are loaded by decreasing estimated cost (gzipped files are inflated while parsed, so their size is weighted)
+ * so that the longest jobs start first and do not remain alone at the end of the batch.
+ *
+ * The state of each file is published to the listener as a property change event (PROPERTY_FILE_STATE)
+ * and files already loaded are kept if the loading is cancelled.
+ *
+ * Loaded files are added to the collection progressively (by EDT), at most every PUBLISH_DELAY_MS
+ * or once PUBLISH_MIN_FILES files are pending, so views refresh before the whole batch is loaded.
+ *
+ * @author bourgesl
+ */
+public final class ParallelOIFitsLoader {
+
+    /** Class logger */
+    private static final Logger logger = LoggerFactory.getLogger(ParallelOIFitsLoader.class.getName());
+    /** property name of file state events (new value is a FileStatus instance) */
+    public static final String PROPERTY_FILE_STATE = "fileState";
+    /** task loading OIFits files in parallel */
+    private static final Task TASK_LOAD_OIFITS = new Task("ParallelLoadOIFits");
+    /** gzip file extension */
+    private static final String GZIP_EXT = ".gz";
+    /** estimated cost ratio of a gzipped file (inflate + parse) relative to its compressed size */
+    private static final long GZIP_COST_FACTOR = 4L;
+    /** minimum delay (ms) between two additions of loaded files to the collection */
+    private static final long PUBLISH_DELAY_MS = 500L;
+    /** number of pending loaded files triggering their addition to the collection */
+    private static final int PUBLISH_MIN_FILES = 16;
+    /** current worker (EDT) */
+    private static LoadOIFitsWorker currentWorker = null;
+
+    /**
+     * Forbidden constructor
+     */
+    private ParallelOIFitsLoader() {
+        super();
+    }
+
+    /**
+     * Loading state of one file
+     */
+    public enum FileState {
+
+        /** waiting for a job thread */
+        QUEUED,
+        /** remote file being downloaded and read */
+        DOWNLOADING,
+        /** file being read and validated */
+        READING,
+        /** file loaded */
+        DONE,
+        /** file could not be loaded */
+        FAILED,
+        /** loading cancelled before the file was read */
+        CANCELLED;
+    }
+
+    /**
+     * Immutable state of one file (PROPERTY_FILE_STATE event value)
+     */
+    public static final class FileStatus {
+
+        /* members */
+        /** file location (local path or remote URL) */
+        private final String location;
+        /** state */
+        private final FileState state;
+
+        /**
+         * Package-private constructor
+         * @param location file location (local path or remote URL)
+         * @param state state
+         */
+        FileStatus(final String location, final FileState state) {
+            this.location = location;
+            this.state = state;
+        }
+
+        /**
+         * @return file location (local path or remote URL)
+         */
+        public String getLocation() {
+            return location;
+        }
+
+        /**
+         * @return state
+         */
+        public FileState getState() {
+            return state;
+        }
+
+        @Override
+        public String toString() {
+            return getFileName(location) + ": " + state;
+        }
+    }
+
+    /**
+     * Return the file name of the given location
+     * @param location file location (local path or remote URL)
+     * @return last path segment
+     */
+    public static String getFileName(final String location) {
+        final int pos = Math.max(location.lastIndexOf('/'), location.lastIndexOf(File.separatorChar));
+        return (pos != -1 && pos < location.length() - 1) ? location.substring(pos + 1) : location;
+    }
+
+    /**
+     * Return true if the given location is a remote URL
+     * @param location file location (local path or remote URL)
+     * @return true if the location has an URL scheme (http, ftp ...)
+     */
+    static boolean isRemote(final String location) {
+        return location.indexOf("://") != -1;
+    }
+
+    /**
+     * Load the given OIFits files concurrently then add them to the current OIFits collection
+     * Note: must be called by EDT when no loading task is running (see isLoading)
+     * @param locations file locations to load (local paths or remote URLs)
+     * @param checker checker gathering validation messages
+     * @param listener progress / done listener (done is always called by EDT, even if the task is cancelled)
+     * @throws IllegalStateException if a loading task is already running
+     */
+    public static void loadOIFitsFiles(final String[] locations,
+                                       final OIFitsChecker checker, final LoadOIFitsListener listener)
+            throws IllegalStateException {
+        if (currentWorker != null) {
+            // the executor would cancel the running task:
+            throw new IllegalStateException("OIFits files are already being loaded");
+        }
+        final LoadOIFitsWorker worker = new LoadOIFitsWorker(locations, checker, listener);
+        currentWorker = worker;
+
+        worker.executeTask();
+    }
+
+    /**
+     * Cancel the current loading task (files already loaded are kept)
+     * Note: must be called by EDT
+     */
+    public static void cancelTaskLoadOIFits() {
+        if (currentWorker != null) {
+            currentWorker.cancelLoading();
+        }
+    }
+
+    /**
+     * Return true if a loading task is running
+     * Note: must be called by EDT
+     * @return true if a loading task is running
+     */
+    public static boolean isLoading() {
+        return (currentWorker != null);
+    }
+
+    /**
+     * Load OIFits files in background (parallel jobs) and add them to the collection using EDT
+     */
+    private static final class LoadOIFitsWorker extends TaskSwingWorker<List<OIFitsFile>> {
+
+        /* members */
+        /** file locations to load (local paths or remote URLs) */
+        private final String[] locations;
+        /** checker gathering the messages of all files */
+        private final OIFitsChecker checker;
+        /** checker per file set once the file is read (merged into checker once done) */
+        private final AtomicReferenceArray<OIFitsChecker> fileCheckers;
+        /** progress / done listener */
+        private final LoadOIFitsListener listener;
+        /** cancel flag */
+        private volatile boolean cancelled = false;
+        /** error messages (synchronized) */
+        private final List<String> errors = new ArrayList<String>();
+        /** loaded files not yet added to the collection (synchronized) */
+        private final List<OIFitsFile> pendingFiles = new ArrayList<OIFitsFile>();
+        /** true if a publish task is scheduled on EDT (guarded by pendingFiles) */
+        private boolean publishScheduled = false;
+        /** last time (ns) loaded files were published (guarded by pendingFiles) */
+        private long lastPublishTime = System.nanoTime();
+        /** publish task adding pending files to the collection (EDT) */
+        private final Runnable publishTask = new Runnable() {
+            @Override
+            public void run() {
+                addOIFitsFiles(takePendingFiles());
+            }
+        };
+
+        /**
+         * Hidden constructor
+         * @param locations file locations to load (local paths or remote URLs)
+         * @param checker checker gathering validation messages
+         * @param listener progress / done listener
+         */
+        LoadOIFitsWorker(final String[] locations, final OIFitsChecker checker, final LoadOIFitsListener listener) {
+            super(TASK_LOAD_OIFITS);
+            this.locations = locations;
+            this.checker = checker;
+            this.fileCheckers = new AtomicReferenceArray<OIFitsChecker>(locations.length);
+            this.listener = listener;
+
+            addPropertyChangeListener(new PropertyChangeListener() {
+                @Override
+                public void propertyChange(final PropertyChangeEvent pce) {
+                    listener.propertyChange(pce);
+                }
+            });
+        }
+
+        /**
+         * Stop loading remaining files
+         */
+        void cancelLoading() {
+            this.cancelled = true;
+        }
+
+        /**
+         * Load the files using parallel jobs
+         * This code is executed by a Worker thread (Not Swing EDT)
+         * @return loaded OIFits files not yet added to the collection
+         */
+        @Override
+        public List<OIFitsFile> computeInBackground() {
+            final long startTime = System.nanoTime();
+
+            final int nFiles = locations.length;
+            final AtomicInteger nDone = new AtomicInteger(0);
+            final AtomicInteger nLoaded = new AtomicInteger(0);
+
+            final Integer[] order = getIndicesByCost(locations);
+            final Runnable[] jobs = new Runnable[nFiles];
+
+            for (int i = 0; i < nFiles; i++) {
+                final int index = order[i];
+
+                jobs[i] = new Runnable() {
+                    @Override
+                    public void run() {
+                        if (cancelled) {
+                            fireFileState(locations[index], FileState.CANCELLED);
+                            return;
+                        }
+                        final OIFitsFile oiFitsFile = loadOIFits(index);
+                        if (oiFitsFile != null) {
+                            nLoaded.incrementAndGet();
+                            publishLater(oiFitsFile);
+                        }
+
+                        setProgress(Math.round((100f * nDone.incrementAndGet()) / nFiles));
+                    }
+                };
+            }
+
+            ParallelJobExecutor.getInstance().forkAndJoin("ParallelOIFitsLoader.load", jobs);
+
+            logger.info("computeInBackground: {} / {} files loaded in {} ms.", nLoaded.get(), nFiles,
+                    1e-6d * (System.nanoTime() - startTime));
+
+            return takePendingFiles();
+        }
+
+        /**
+         * Add the given loaded file to the pending files and schedule their addition to the collection
+         * if enough files are pending or the last addition is old enough
+         * This code is executed by a job thread
+         * @param oiFitsFile loaded OIFits file
+         */
+        private void publishLater(final OIFitsFile oiFitsFile) {
+            synchronized (pendingFiles) {
+                pendingFiles.add(oiFitsFile);
+
+                if (!publishScheduled
+                        && (pendingFiles.size() >= PUBLISH_MIN_FILES
+                        || (System.nanoTime() - lastPublishTime) >= PUBLISH_DELAY_MS * 1000000L)) {
+                    publishScheduled = true;
+                    SwingUtils.invokeLaterEDT(publishTask);
+                }
+            }
+        }
+
+        /**
+         * Return and clear the pending files
+         * @return pending files (copy)
+         */
+        private List<OIFitsFile> takePendingFiles() {
+            synchronized (pendingFiles) {
+                final List<OIFitsFile> files = new ArrayList<OIFitsFile>(pendingFiles);
+                pendingFiles.clear();
+                publishScheduled = false;
+                lastPublishTime = System.nanoTime();
+                return files;
+            }
+        }
+
+        /**
+         * Add the given loaded files to the collection
+         * This code is executed by the Swing Event Dispatcher thread (EDT)
+         * @param loaded loaded OIFits files
+         */
+        private static void addOIFitsFiles(final List<OIFitsFile> loaded) {
+            if (!loaded.isEmpty()) {
+                final OIFitsCollectionManager ocm = OIFitsCollectionManager.getInstance();
+
+                for (OIFitsFile oiFitsFile : loaded) {
+                    ocm.addOIFitsFile(oiFitsFile);
+                }
+            }
+        }
+
+        /**
+         * Merge the messages of the given file checkers into the given checker (in the file order)
+         * @param checker checker gathering the messages of all files
+         * @param fileCheckers checker per file (null if the file was not read)
+         */
+        private static void mergeCheckers(final OIFitsChecker checker, final AtomicReferenceArray<OIFitsChecker> fileCheckers) {
+            for (int i = 0, len = fileCheckers.length(); i < len; i++) {
+                final OIFitsChecker fileChecker = fileCheckers.get(i);
+                if (fileChecker != null) {
+                    checker.getFailures().addAll(fileChecker.getFailures());
+                }
+            }
+        }
+
+        /**
+         * Return the file indices sorted by decreasing estimated loading cost
+         * @param locations file locations to load (remote files have an unknown size: started first)
+         * @return file indices (largest jobs first, stable for equal costs)
+         */
+        private static Integer[] getIndicesByCost(final String[] locations) {
+            final int nFiles = locations.length;
+            final long[] costs = new long[nFiles];
+            final Integer[] order = new Integer[nFiles];
+
+            for (int i = 0; i < nFiles; i++) {
+                costs[i] = isRemote(locations[i]) ? Long.MAX_VALUE : getEstimatedCost(new File(locations[i]));
+                order[i] = Integer.valueOf(i);
+            }
+
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(final Integer i1, final Integer i2) {
+                    final long c1 = costs[i1.intValue()];
+                    final long c2 = costs[i2.intValue()];
+                    return (c1 > c2) ? -1 : ((c1 < c2) ? 1 : 0);
+                }
+            });
+            return order;
+        }
+
+        /**
+         * Return the estimated loading cost of the given file
+         * @param file file to load
+         * @return file length (weighted for gzipped files)
+         */
+        private static long getEstimatedCost(final File file) {
+            final long length = file.length();
+            if (file.getName().toLowerCase().endsWith(GZIP_EXT)) {
+                return GZIP_COST_FACTOR * length;
+            }
+            return length;
+        }
+
+        /**
+         * Parse and validate the file at the given index using its own checker
+         * This code is executed by a job thread
+         * @param index file index
+         * @return OIFits file or null if failed
+         */
+        private OIFitsFile loadOIFits(final int index) {
+            final String location = locations[index];
+            // checker is not thread-safe: one checker per file
+            final OIFitsChecker fileChecker = OIFitsChecker.newInstance();
+            String error = null;
+            try {
+                fireFileState(location, isRemote(location) ? FileState.DOWNLOADING : FileState.READING);
+
+                // same loader entry point as OIFitsCollectionManager (parsing messages are reported too,
+                // remote files are downloaded by the loader):
+                final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(fileChecker, location);
+
+                fireFileState(location, FileState.DONE);
+                return oiFitsFile;
+
+            } catch (IOException ioe) {
+                logger.info("Unable to load file: {}", location, ioe);
+                error = location + ": " + ioe.getMessage();
+            } catch (FitsException fe) {
+                logger.info("Unable to load file: {}", location, fe);
+                error = location + ": " + fe.getMessage();
+            } finally {
+                // publish the checker once complete (a cancelled task may merge checkers before all jobs end):
+                fileCheckers.set(index, fileChecker);
+            }
+            synchronized (errors) {
+                errors.add(error);
+            }
+            fireFileState(location, FileState.FAILED);
+            return null;
+        }
+
+        /**
+         * Publish the new state of the given file (delivered to the listener by EDT)
+         * @param location file location
+         * @param state new state
+         */
+        private void fireFileState(final String location, final FileState state) {
+            firePropertyChange(PROPERTY_FILE_STATE, null, new FileStatus(location, state));
+        }
+
+        /**
+         * Add the remaining loaded files to the collection then notify the listener
+         * This code is executed by the Swing Event Dispatcher thread (EDT)
+         * @param loaded loaded OIFits files not yet added to the collection
+         */
+        @Override
+        public void refreshUI(final List<OIFitsFile> loaded) {
+            finish(loaded);
+        }
+
+        /**
+         * Add the files loaded before the task was cancelled (interrupted) to the collection
+         * then notify the listener
+         * This code is executed by the Swing Event Dispatcher thread (EDT)
+         * @param cancelled true if the task was cancelled
+         */
+        @Override
+        public void refreshNoData(final boolean cancelled) {
+            if (cancelled) {
+                cancelLoading();
+            }
+            finish(takePendingFiles());
+        }
+
+        /**
+         * Add the files loaded before the failure to the collection, notify the listener
+         * then report the exception
+         * This code is executed by the Swing Event Dispatcher thread (EDT)
+         * @param ee execution exception
+         */
+        @Override
+        public void handleException(final ExecutionException ee) {
+            cancelLoading();
+            finish(takePendingFiles());
+
+            super.handleException(ee);
+        }
+
+        /**
+         * Add the remaining loaded files to the collection (even if cancelled) then notify the listener
+         * This code is executed by the Swing Event Dispatcher thread (EDT)
+         * @param loaded loaded OIFits files not yet added to the collection
+         */
+        private void finish(final List<OIFitsFile> loaded) {
+            if (currentWorker == this) {
+                currentWorker = null;
+            }
+
+            addOIFitsFiles(loaded);
+
+            mergeCheckers(checker, fileCheckers);
+
+            if (!cancelled) {
+                synchronized (errors) {
+                    if (!errors.isEmpty()) {
+                        final StringBuilder sb = new StringBuilder(256);
+                        sb.append("Could not load ").append(errors.size()).append(" file(s):");
+                        for (String error : errors) {
+                            sb.append('\n').append(error);
+                        }
+                        MessagePane.showErrorMessage(sb.toString());
+                    }
+                }
+            }
+
+            listener.done(cancelled);
+        }
+    }
+}
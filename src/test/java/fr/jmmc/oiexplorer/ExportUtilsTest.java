@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests of the command line parsers of ExportUtils (timeout, batch manifest)
+ * Note: tests are skipped by default (maven.test.skip), run them with:
+ * mvn -Dmaven.test.skip=false test -Dtest=ExportUtilsTest
+ */
+public class ExportUtilsTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parseTimeoutDefault() {
+        Assert.assertEquals(ExportUtils.DEFAULT_TIMEOUT, ExportUtils.parseTimeout(null));
+    }
+
+    @Test
+    public void parseTimeoutValid() {
+        Assert.assertEquals(120l, ExportUtils.parseTimeout(" 120 "));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseTimeoutZero() {
+        ExportUtils.parseTimeout("0");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseTimeoutInvalid() {
+        ExportUtils.parseTimeout("10s");
+    }
+
+    @Test
+    public void tokenizeSpaces() {
+        Assert.assertEquals(Arrays.asList("a.oixp", "out", "night=3"), ExportUtils.tokenize("a.oixp \t out  night=3"));
+    }
+
+    @Test
+    public void tokenizeQuotes() {
+        Assert.assertEquals(Arrays.asList("my dir/a.oixp", "file=my dir/b.fits", ""),
+                ExportUtils.tokenize("\"my dir/a.oixp\" file=\"my dir/b.fits\" \"\""));
+    }
+
+    @Test
+    public void tokenizeUnclosedQuote() {
+        Assert.assertNull(ExportUtils.tokenize("\"my dir/a.oixp out"));
+    }
+
+    @Test
+    public void parseManifest() throws IOException {
+        final File dir = folder.newFolder("my data");
+        final File oixp = new File(dir, "a b.oixp");
+        Assert.assertTrue(oixp.createNewFile());
+        final File oifits = new File(dir, "c.fits");
+        Assert.assertTrue(oifits.createNewFile());
+
+        final File manifest = writeManifest(dir,
+                "# comment",
+                "",
+                "\"a b.oixp\"",
+                "\"a b.oixp\" custom file=c.fits target=HD_1 night=5");
+
+        final List<ExportUtils.BatchItem> items = ExportUtils.parseManifest(manifest);
+        Assert.assertEquals(2, items.size());
+
+        final ExportUtils.BatchItem first = items.get(0);
+        Assert.assertEquals(oixp.getAbsoluteFile(), first.file.getAbsoluteFile());
+        Assert.assertEquals("a b", first.outputName);
+        Assert.assertTrue(first.overrides.isEmpty());
+
+        final ExportUtils.BatchItem second = items.get(1);
+        Assert.assertEquals("custom", second.outputName);
+        Assert.assertEquals(oifits.getAbsoluteFile(), second.overrides.getFile());
+        Assert.assertFalse(second.overrides.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseManifestMissingFile() throws IOException {
+        final File dir = folder.newFolder();
+        ExportUtils.parseManifest(writeManifest(dir, "missing.oixp"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseManifestUnclosedQuote() throws IOException {
+        final File dir = folder.newFolder();
+        ExportUtils.parseManifest(writeManifest(dir, "\"a.oixp"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseManifestBadOverride() throws IOException {
+        final File dir = folder.newFolder();
+        Assert.assertTrue(new File(dir, "a.oixp").createNewFile());
+        ExportUtils.parseManifest(writeManifest(dir, "a.oixp color=red"));
+    }
+
+    @Test
+    public void parseManifestEmpty() throws IOException {
+        final File dir = folder.newFolder();
+        Assert.assertEquals(Collections.emptyList(), ExportUtils.parseManifest(writeManifest(dir, "# nothing")));
+    }
+
+    private static File writeManifest(final File dir, final String... lines) throws IOException {
+        final File manifest = new File(dir, "manifest.txt");
+        final Writer w = new FileWriter(manifest);
+        try {
+            for (String line : lines) {
+                w.write(line);
+                w.write('\n');
+            }
+        } finally {
+            w.close();
+        }
+        return manifest;
+    }
+}
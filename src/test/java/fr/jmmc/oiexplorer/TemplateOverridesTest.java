@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oiexplorer;
+
+import fr.jmmc.oiexplorer.core.model.oi.OIDataFile;
+import fr.jmmc.oiexplorer.core.model.oi.SubsetFilter;
+import fr.jmmc.oiexplorer.core.model.oi.TableUID;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Unit tests of TemplateOverrides (command line and manifest overrides, template file replacement and subset filters)
+ * Note: tests are skipped by default (maven.test.skip), run them with:
+ * mvn -Dmaven.test.skip=false test -Dtest=TemplateOverridesTest
+ */
+public class TemplateOverridesTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void emptyByDefault() {
+        final TemplateOverrides overrides = new TemplateOverrides();
+        Assert.assertTrue(overrides.isEmpty());
+        Assert.assertNull(overrides.getFile());
+    }
+
+    @Test
+    public void setFileRelative() throws IOException {
+        final File dir = folder.newFolder();
+        final File oifits = new File(dir, "data.fits");
+        Assert.assertTrue(oifits.createNewFile());
+
+        final TemplateOverrides overrides = new TemplateOverrides();
+        overrides.set("FILE", "data.fits", dir);
+
+        Assert.assertFalse(overrides.isEmpty());
+        Assert.assertEquals(oifits.getAbsoluteFile(), overrides.getFile());
+    }
+
+    @Test
+    public void setFileAbsolute() throws IOException {
+        final File oifits = folder.newFile("abs.fits");
+
+        final TemplateOverrides overrides = new TemplateOverrides();
+        overrides.set(TemplateOverrides.KEY_FILE, oifits.getAbsolutePath(), new File("unused"));
+
+        Assert.assertEquals(oifits.getAbsoluteFile(), overrides.getFile());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setFileMissing() throws IOException {
+        new TemplateOverrides().set(TemplateOverrides.KEY_FILE, "missing.fits", folder.newFolder());
+    }
+
+    @Test
+    public void setFilters() {
+        final TemplateOverrides overrides = new TemplateOverrides();
+        overrides.set(TemplateOverrides.KEY_TARGET, "HD_1234", null);
+        overrides.set("InsMode", "IONIC3", null);
+        overrides.set(TemplateOverrides.KEY_NIGHT, " 53090 ", null);
+
+        Assert.assertFalse(overrides.isEmpty());
+        Assert.assertNull(overrides.getFile());
+
+        final SubsetFilter filter = newFilter();
+        overrides.applyFilter(filter);
+
+        Assert.assertEquals("HD_1234", filter.getTargetUID());
+        Assert.assertEquals(1, filter.getInsModeUIDs().size());
+        Assert.assertEquals("IONIC3", filter.getInsModeUIDs().get(0));
+        Assert.assertEquals(1, filter.getNightIDs().size());
+        Assert.assertEquals(Integer.valueOf(53090), filter.getNightIDs().get(0));
+        // no file override: template tables are kept
+        Assert.assertEquals(1, filter.getTables().size());
+    }
+
+    @Test
+    public void applyFilterKeepsUndefinedValues() {
+        final SubsetFilter filter = newFilter();
+        new TemplateOverrides().applyFilter(filter);
+
+        Assert.assertEquals("TPL_TARGET", filter.getTargetUID());
+        Assert.assertEquals("TPL_INSMODE", filter.getInsModeUIDs().get(0));
+        Assert.assertEquals(Integer.valueOf(1), filter.getNightIDs().get(0));
+        Assert.assertEquals(1, filter.getTables().size());
+    }
+
+    @Test
+    public void applyFilterClearsTablesWithFile() throws IOException {
+        final TemplateOverrides overrides = new TemplateOverrides();
+        overrides.set(TemplateOverrides.KEY_FILE, folder.newFile("data.fits").getAbsolutePath(), null);
+
+        final SubsetFilter filter = newFilter();
+        overrides.applyFilter(filter);
+
+        Assert.assertEquals("TPL_TARGET", filter.getTargetUID());
+        Assert.assertTrue(filter.getTables().isEmpty());
+    }
+
+    @Test
+    public void replaceFiles() throws Exception {
+        final File oifits = folder.newFile("new.fits");
+        final File template = writeTemplate("template.oixp",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<oixp:oiDataCollection xmlns:oixp=\"http://www.jmmc.fr/oiexplorer-data-collection/0.1\">\n"
+                + "<file><id>f1</id><name>old1.fits</name><file>/data/old1.fits</file></file>\n"
+                + "<file><id>f2</id><name>old2.fits</name><file>/data/old2.fits</file></file>\n"
+                + "<subsetDefinition><id>CURRENT</id><name>old1.fits</name></subsetDefinition>\n"
+                + "</oixp:oiDataCollection>\n");
+
+        final TemplateOverrides overrides = new TemplateOverrides();
+        overrides.set(TemplateOverrides.KEY_FILE, oifits.getAbsolutePath(), null);
+
+        final File copy = overrides.replaceFiles(template);
+        try {
+            Assert.assertNotEquals(template, copy);
+
+            final Document doc = parse(copy);
+            final NodeList files = doc.getDocumentElement().getElementsByTagName("file");
+            int nFiles = 0;
+
+            for (int i = 0, len = files.getLength(); i < len; i++) {
+                final Element elem = (Element) files.item(i);
+
+                if (elem.getParentNode() == doc.getDocumentElement()) {
+                    nFiles++;
+                    Assert.assertEquals("f" + nFiles, getChildText(elem, "id"));
+                    Assert.assertEquals("new.fits", getChildText(elem, "name"));
+                    Assert.assertEquals(oifits.getAbsolutePath(), getChildText(elem, "file"));
+                }
+            }
+            Assert.assertEquals(2, nFiles);
+
+            // elements outside file elements are unchanged:
+            final Element subset = (Element) doc.getElementsByTagName("subsetDefinition").item(0);
+            Assert.assertEquals("old1.fits", getChildText(subset, "name"));
+
+            // template is unchanged:
+            Assert.assertEquals("old1.fits", getChildText((Element) parse(template).getElementsByTagName("file").item(0), "name"));
+        } finally {
+            Assert.assertTrue(copy.delete());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void replaceFilesRejectsDoctype() throws IOException {
+        final File entity = folder.newFile("secret.txt");
+        final File template = writeTemplate("doctype.oixp",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<!DOCTYPE oiDataCollection [<!ENTITY secret SYSTEM \"" + entity.toURI() + "\">]>\n"
+                + "<oiDataCollection><file><name>&secret;</name><file>/data/old.fits</file></file></oiDataCollection>\n");
+
+        final TemplateOverrides overrides = new TemplateOverrides();
+        overrides.set(TemplateOverrides.KEY_FILE, folder.newFile("new.fits").getAbsolutePath(), null);
+
+        overrides.replaceFiles(template);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setNightInvalid() {
+        new TemplateOverrides().set(TemplateOverrides.KEY_NIGHT, "last", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setUnsupportedKey() {
+        new TemplateOverrides().set("color", "red", null);
+    }
+
+    /**
+     * @return subset filter having template values
+     */
+    private static SubsetFilter newFilter() {
+        final SubsetFilter filter = new SubsetFilter();
+        filter.setTargetUID("TPL_TARGET");
+        filter.getInsModeUIDs().add("TPL_INSMODE");
+        filter.getNightIDs().add(Integer.valueOf(1));
+        filter.getTables().add(new TableUID(new OIDataFile(), "OI_VIS2", 1));
+        return filter;
+    }
+
+    private File writeTemplate(final String name, final String content) throws IOException {
+        final File template = folder.newFile(name);
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(template), "UTF-8");
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+        return template;
+    }
+
+    private static Document parse(final File file) throws IOException {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+        } catch (ParserConfigurationException pce) {
+            throw new IOException(pce);
+        } catch (SAXException se) {
+            throw new IOException(se);
+        }
+    }
+
+    private static String getChildText(final Element parent, final String name) {
+        final NodeList nodes = parent.getChildNodes();
+        for (int i = 0, len = nodes.getLength(); i < len; i++) {
+            if (name.equals(nodes.item(i).getNodeName())) {
+                return nodes.item(i).getTextContent();
+            }
+        }
+        return null;
+    }
+}